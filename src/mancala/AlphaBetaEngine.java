@@ -0,0 +1,796 @@
+package mancala;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A computer opponent that looks several moves ahead with a negamax search and
+ * alpha-beta pruning. Positions at the end of the search are scored with
+ * {@link Evaluation}.
+ * 
+ * <p>
+ * A move that ends in the mover's own store gives that player another move, so
+ * the same player is still to move in the position below it. Scores are always
+ * from the point of view of the player to move, so the child's score is only
+ * negated, and the search window only flipped, when the turn has passed to the
+ * other player.
+ * 
+ * <p>
+ * Moves that earn another turn are searched first, then captures from largest
+ * to smallest, then the remaining moves in pit order. Trying the strongest moves
+ * first lets alpha-beta cut off far more of the tree. Between moves of equal
+ * score the one searched first is kept, so the engine always chooses the same
+ * move in the same position.
+ * 
+ * <p>
+ * Results are kept in a {@link TranspositionTable}, so a position reached
+ * again through a different order of moves, which happens often with extra
+ * turns, is answered from the table. The best move stored for a position is
+ * searched first when it has to be searched again.
+ * 
+ * <p>
+ * For coaching, {@link #analyze(Board)} scores every legal move in a position
+ * rather than only finding the best one.
+ * 
+ * <p>
+ * Besides the depth and the time limit, a search can be limited to a number of
+ * positions, which bounds its work the same on a fast machine as on a busy
+ * one. For weaker play, a random amount up to a noise level can be added to the
+ * score of each move at the root, so that the engine sometimes prefers a move
+ * that looks slightly worse.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class AlphaBetaEngine implements SearchEngine {
+	public static final int DEFAULT_DEPTH = 12;
+	public static final int MAX_PLY = 64;
+
+	private static final int EXTRA_TURN_ORDER = 1000;
+	public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+	// The depth stored for results that reach the end of the game on every line
+	private static final int SOLVED_DEPTH = MAX_PLY;
+	// The clock is read once every 1024 nodes
+	private static final long TIME_CHECK_INTERVAL = 1023;
+
+	private final Board board = new Board();
+	private final int[][] moves = new int[MAX_PLY][Board.PITS_PER_SIDE];
+	private final int[][] orderKeys = new int[MAX_PLY][Board.PITS_PER_SIDE];
+	private TranspositionTable table;
+	private int depth;
+	private long timeLimitMillis;
+	private long nodeLimit;
+	private int noise;
+	private Random noiseRandom;
+	private final int[] rootNoise = new int[Board.SLOT_COUNT];
+	private long deadline;
+	private boolean deadlineActive;
+	private volatile boolean stopRequested;
+	private int firstDepth = 1;
+	private int depthStep = 1;
+	private boolean timeUp;
+	private boolean reachedHorizon;
+	private long nodesSearched;
+	private long tableHits;
+	private long cutoffs;
+	private SearchStats lastStats;
+	private int bestScore;
+	private int completedDepth;
+	private long lastSearchNanos;
+	private long lastOverrunNanos;
+	private long maxOverrunNanos;
+
+	/**
+	 * Creates an alpha-beta opponent that searches {@link #DEFAULT_DEPTH} moves
+	 * ahead.
+	 */
+	public AlphaBetaEngine() {
+		this(DEFAULT_DEPTH);
+	}
+
+	/**
+	 * Creates an alpha-beta opponent that searches the given number of moves ahead.
+	 * 
+	 * @param depth the number of moves to look ahead, from 1 to {@link #MAX_PLY}
+	 */
+	public AlphaBetaEngine(int depth) {
+		this(depth, 0);
+	}
+
+	/**
+	 * Creates an alpha-beta opponent that searches as deep as it can within a time
+	 * limit, up to the given number of moves ahead.
+	 * 
+	 * @param depth           the most moves to look ahead, from 1 to
+	 *                        {@link #MAX_PLY}
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 */
+	public AlphaBetaEngine(int depth, long timeLimitMillis) {
+		this(depth, timeLimitMillis, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+	}
+
+	/**
+	 * Creates an alpha-beta opponent that searches as deep as it can within a time
+	 * limit, remembering the positions it has searched in the given table.
+	 * 
+	 * @param depth           the most moves to look ahead, from 1 to
+	 *                        {@link #MAX_PLY}
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 * @param table           the transposition table to be used, or null to
+	 *                        search without one
+	 */
+	public AlphaBetaEngine(int depth, long timeLimitMillis, TranspositionTable table) {
+		setDepth(depth);
+		setTimeLimit(timeLimitMillis);
+		this.table = table;
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board.
+	 * 
+	 * <p>
+	 * The position is searched one move deep, then two, and so on up to the
+	 * search depth, trying the best move of the previous depth first each time.
+	 * If a time limit is set and it runs out part way through a depth, that
+	 * depth is abandoned and the best move of the last completed depth is
+	 * returned. The first depth is always completed. The search also stops early
+	 * once a depth reaches the end of the game along every line.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public int chooseMove(Board position) {
+		long startTime = System.nanoTime();
+		deadline = timeLimitMillis == 0 ? Long.MAX_VALUE : startTime + timeLimitMillis * 1000000;
+		board.copyFrom(position);
+		nodesSearched = 1;
+		tableHits = 0;
+		cutoffs = 0;
+		completedDepth = 0;
+		deadlineActive = false;
+		timeUp = false;
+
+		int moveCount = generateMoves(0);
+		if (moveCount == 0) {
+			throw new IllegalStateException("Player " + (board.getCurrentPlayer() + 1) + " has no legal move");
+		}
+		int[] rootMoves = moves[0];
+		for (int i = 0; i < moveCount; i++) {
+			rootNoise[rootMoves[i]] = noise == 0 ? 0 : noiseRandom.nextInt(2 * noise + 1) - noise;
+		}
+		int bestMove = rootMoves[0];
+		for (int iterationDepth = Math.min(firstDepth, depth); iterationDepth <= depth; iterationDepth += depthStep) {
+			reachedHorizon = false;
+			int alpha = -Evaluation.MAX_SCORE;
+			int iterationBestMove = rootMoves[0];
+			for (int i = 0; i < moveCount; i++) {
+				int offset = rootNoise[rootMoves[i]];
+				int score = searchMove(rootMoves[i], iterationDepth - 1, 1, alpha - offset, Evaluation.MAX_SCORE)
+						+ offset;
+				if (timeUp) {
+					break;
+				}
+				if (score > alpha) {
+					alpha = score;
+					iterationBestMove = rootMoves[i];
+				}
+			}
+			if (timeUp) {
+				break;
+			}
+			bestMove = iterationBestMove;
+			bestScore = alpha - rootNoise[bestMove];
+			completedDepth = iterationDepth;
+			deadlineActive = true;
+			if (!reachedHorizon) {
+				break;
+			}
+			moveToFront(rootMoves, bestMove);
+		}
+
+		lastSearchNanos = System.nanoTime() - startTime;
+		lastOverrunNanos = timeLimitMillis == 0 ? 0 : Math.max(0, lastSearchNanos - timeLimitMillis * 1000000);
+		maxOverrunNanos = Math.max(maxOverrunNanos, lastOverrunNanos);
+		lastStats = new SearchStats(nodesSearched, tableHits, cutoffs, completedDepth, lastSearchNanos, bestScore,
+				getPrincipalVariation(position, bestMove, completedDepth, table));
+		return bestMove;
+	}
+
+	/**
+	 * Scores every legal move for the player whose turn it is, for showing a
+	 * player how their choices compare. The moves are searched together with
+	 * iterative deepening, sharing one transposition table and one budget, as
+	 * {@link #chooseMove(Board)} does. The difference is that each move at the
+	 * root is searched with a full window, so every score is exact rather than
+	 * only the best one. The search keeps to the engine's depth, time limit and
+	 * node limit, but adds no noise.
+	 * 
+	 * <p>
+	 * The results stay in the transposition table, so analysing the same position
+	 * again answers the depths already searched from the table and spends the new
+	 * budget looking deeper.
+	 * 
+	 * @param position the board to analyse, which is left unchanged
+	 * @return the analysis of every legal move, best first, with moves of equal
+	 *         score in the order they were searched
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public MoveAnalysis[] analyze(Board position) {
+		long startTime = System.nanoTime();
+		deadline = timeLimitMillis == 0 ? Long.MAX_VALUE : startTime + timeLimitMillis * 1000000;
+		board.copyFrom(position);
+		nodesSearched = 1;
+		tableHits = 0;
+		cutoffs = 0;
+		completedDepth = 0;
+		deadlineActive = false;
+		timeUp = false;
+
+		int moveCount = generateMoves(0);
+		if (moveCount == 0) {
+			throw new IllegalStateException("Player " + (board.getCurrentPlayer() + 1) + " has no legal move");
+		}
+		int[] rootMoves = Arrays.copyOf(moves[0], moveCount);
+		int[] scores = new int[moveCount];
+		boolean[] exact = new boolean[moveCount];
+		int[] iterationScores = new int[moveCount];
+		boolean[] iterationExact = new boolean[moveCount];
+		for (int iterationDepth = 1; iterationDepth <= depth; iterationDepth++) {
+			boolean anyHorizon = false;
+			for (int i = 0; i < moveCount && !timeUp; i++) {
+				reachedHorizon = false;
+				iterationScores[i] = searchMove(rootMoves[i], iterationDepth - 1, 1, -Evaluation.MAX_SCORE,
+						Evaluation.MAX_SCORE);
+				iterationExact[i] = !reachedHorizon;
+				anyHorizon |= reachedHorizon;
+			}
+			if (timeUp) {
+				break;
+			}
+			System.arraycopy(iterationScores, 0, scores, 0, moveCount);
+			System.arraycopy(iterationExact, 0, exact, 0, moveCount);
+			completedDepth = iterationDepth;
+			deadlineActive = true;
+			sortByScore(rootMoves, scores, exact);
+			if (!anyHorizon) {
+				break;
+			}
+		}
+
+		MoveAnalysis[] analysis = new MoveAnalysis[moveCount];
+		for (int i = 0; i < moveCount; i++) {
+			analysis[i] = new MoveAnalysis(rootMoves[i], scores[i], completedDepth, exact[i],
+					getPrincipalVariation(position, rootMoves[i], completedDepth, table));
+		}
+		bestScore = scores[0];
+		lastSearchNanos = System.nanoTime() - startTime;
+		lastOverrunNanos = timeLimitMillis == 0 ? 0 : Math.max(0, lastSearchNanos - timeLimitMillis * 1000000);
+		maxOverrunNanos = Math.max(maxOverrunNanos, lastOverrunNanos);
+		lastStats = new SearchStats(nodesSearched, tableHits, cutoffs, completedDepth, lastSearchNanos, bestScore,
+				analysis[0].getPrincipalVariation());
+		return analysis;
+	}
+
+	/**
+	 * Scores every legal move for the player whose turn it is in a game.
+	 * 
+	 * @param game the game to analyse, which is left unchanged
+	 * @return the analysis of every legal move, best first
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public MoveAnalysis[] analyze(Game game) {
+		return analyze(game.getBoard());
+	}
+
+	/**
+	 * Sorts root moves from the highest score to the lowest, keeping the order of
+	 * moves with equal scores, and their scores and exactness with them.
+	 */
+	private static void sortByScore(int[] rootMoves, int[] scores, boolean[] exact) {
+		for (int i = 1; i < rootMoves.length; i++) {
+			int move = rootMoves[i];
+			int score = scores[i];
+			boolean moveExact = exact[i];
+			int j = i;
+			while (j > 0 && scores[j - 1] < score) {
+				rootMoves[j] = rootMoves[j - 1];
+				scores[j] = scores[j - 1];
+				exact[j] = exact[j - 1];
+				j--;
+			}
+			rootMoves[j] = move;
+			scores[j] = score;
+			exact[j] = moveExact;
+		}
+	}
+
+	/**
+	 * Follows the best moves stored in a transposition table from a position, to
+	 * find the line of play a search expects. The line stops at a position the
+	 * table does not hold, or whose stored move is not legal, or at the end of the
+	 * game.
+	 * 
+	 * @param position  the position searched, which is left unchanged
+	 * @param bestMove  the move chosen in the position
+	 * @param maxLength the most moves in the line
+	 * @param table     the table the search stored its results in, or null
+	 * @return the pit indices of the line, starting with the chosen move
+	 */
+	static int[] getPrincipalVariation(Board position, int bestMove, int maxLength, TranspositionTable table) {
+		int[] line = new int[Math.max(1, maxLength)];
+		line[0] = bestMove;
+		int length = 1;
+		Board board = new Board(position);
+		board.makeMove(bestMove);
+		while (table != null && length < line.length && !board.isGameOver()) {
+			long entry = table.probe(ZobristHash.hash(board));
+			int move = TranspositionTable.getMove(entry);
+			if (entry == TranspositionTable.MISS || move == TranspositionTable.NO_MOVE || !board.isLegal(move)) {
+				break;
+			}
+			line[length++] = move;
+			board.makeMove(move);
+		}
+		return Arrays.copyOf(line, length);
+	}
+
+	/**
+	 * Moves a pit to the front of a move list, keeping the order of the others.
+	 * 
+	 * @param moveList a move list containing the pit
+	 * @param pit      the pit to be moved to the front
+	 */
+	static void moveToFront(int[] moveList, int pit) {
+		int i = 0;
+		while (moveList[i] != pit) {
+			i++;
+		}
+		for (; i > 0; i--) {
+			moveList[i] = moveList[i - 1];
+		}
+		moveList[0] = pit;
+	}
+
+	/**
+	 * Scores a position for the player to move by searching a fixed number of
+	 * moves ahead within a window, for engines that share a search between
+	 * threads. Scores inside the window are exact; a score at or below alpha, or
+	 * at or above beta, only bounds the true score.
+	 * 
+	 * @param position the position to be searched, which is left unchanged
+	 * @param depth    the number of moves to look ahead
+	 * @param alpha    the score the player to move is already sure of
+	 * @param beta     the score the opponent is already sure to hold the player to
+	 * @param deadline the {@link System#nanoTime()} the search must stop at, or
+	 *                 {@link Long#MAX_VALUE} for no deadline
+	 * @return the score of the position
+	 */
+	int searchSubtree(Board position, int depth, int alpha, int beta, long deadline) {
+		board.copyFrom(position);
+		this.deadline = deadline;
+		deadlineActive = deadline != Long.MAX_VALUE || nodeLimit != 0;
+		timeUp = false;
+		reachedHorizon = false;
+		nodesSearched = 0;
+		tableHits = 0;
+		cutoffs = 0;
+		return search(depth, 0, alpha, beta);
+	}
+
+	/**
+	 * Asks a search running on another thread to stop at its next clock check, as
+	 * if its time had run out. The request stays in place until
+	 * {@link #clearStop()} is called.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Withdraws a request to stop, so that the next search runs normally.
+	 */
+	public void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * Sets the depths iterative deepening searches, so that threads sharing a
+	 * transposition table can work on different depths at the same time.
+	 * 
+	 * @param firstDepth the first depth searched by {@link #chooseMove(Board)}
+	 * @param depthStep  the amount the depth grows by after each iteration
+	 */
+	void setDepthSchedule(int firstDepth, int depthStep) {
+		this.firstDepth = Math.max(1, firstDepth);
+		this.depthStep = Math.max(1, depthStep);
+	}
+
+	/**
+	 * Returns whether the last search ran out of time. Its score is meaningless if
+	 * so.
+	 * 
+	 * @return true if the deadline passed during the last search, false otherwise
+	 */
+	boolean isTimeUp() {
+		return timeUp;
+	}
+
+	/**
+	 * Returns whether the last search was cut short by its depth anywhere, rather
+	 * than reaching the end of the game on every line.
+	 * 
+	 * @return true if the search reached its depth limit, false otherwise
+	 */
+	boolean isHorizonReached() {
+		return reachedHorizon;
+	}
+
+	/**
+	 * Makes a move on the scratch board, searches the position below it and takes
+	 * the move back.
+	 * 
+	 * @return the score of the move for the player making it
+	 */
+	private int searchMove(int pit, int depth, int ply, int alpha, int beta) {
+		int player = board.getCurrentPlayer();
+		long undo = board.makeMove(pit);
+		int score;
+		if (board.getCurrentPlayer() == player) {
+			score = search(depth, ply, alpha, beta);
+		} else {
+			score = -search(depth, ply, -beta, -alpha);
+		}
+		board.unmakeMove(undo);
+		return score;
+	}
+
+	/**
+	 * Scores the scratch board for the player to move by searching the given
+	 * number of moves ahead.
+	 */
+	private int search(int depth, int ply, int alpha, int beta) {
+		nodesSearched++;
+		if ((nodesSearched & TIME_CHECK_INTERVAL) == 0 && (stopRequested || deadlineActive
+				&& (System.nanoTime() >= deadline || nodeLimit != 0 && nodesSearched >= nodeLimit))) {
+			timeUp = true;
+		}
+		if (timeUp) {
+			return 0;
+		}
+		if (board.isGameOver()) {
+			return Evaluation.finalScore(board);
+		}
+		if (depth <= 0 || ply >= MAX_PLY) {
+			reachedHorizon = true;
+			return Evaluation.evaluate(board);
+		}
+
+		// A stored result answers this position if it was searched at least as deep
+		long key = 0;
+		int tableMove = TranspositionTable.NO_MOVE;
+		if (table != null) {
+			key = ZobristHash.hash(board);
+			long entry = table.probe(key);
+			if (entry != TranspositionTable.MISS) {
+				tableMove = TranspositionTable.getMove(entry);
+				if (TranspositionTable.getDepth(entry) >= depth) {
+					int score = TranspositionTable.getScore(entry);
+					int bound = TranspositionTable.getBound(entry);
+					if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+							|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+						tableHits++;
+						if (TranspositionTable.getDepth(entry) < SOLVED_DEPTH) {
+							reachedHorizon = true;
+						}
+						return score;
+					}
+				}
+			}
+		}
+
+		int moveCount = generateMoves(ply);
+		int[] plyMoves = moves[ply];
+		if (tableMove != TranspositionTable.NO_MOVE && board.isLegal(tableMove)) {
+			moveToFront(plyMoves, tableMove);
+		}
+
+		// Whether this subtree is cut short by the search depth, kept apart from the rest of the tree
+		boolean outerReachedHorizon = reachedHorizon;
+		reachedHorizon = false;
+		int originalAlpha = alpha;
+		int best = -Evaluation.MAX_SCORE;
+		int bestMove = plyMoves[0];
+		for (int i = 0; i < moveCount; i++) {
+			int score = searchMove(plyMoves[i], depth - 1, ply + 1, alpha, beta);
+			if (score > best) {
+				best = score;
+				bestMove = plyMoves[i];
+				if (score > alpha) {
+					alpha = score;
+					if (alpha >= beta) {
+						cutoffs++;
+						break;
+					}
+				}
+			}
+		}
+
+		if (table != null && !timeUp) {
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+					: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			// A subtree that reaches the end of the game on every line holds for any depth
+			table.store(key, reachedHorizon ? depth : SOLVED_DEPTH, bound, best, bestMove);
+		}
+		reachedHorizon |= outerReachedHorizon;
+		return best;
+	}
+
+	/**
+	 * Fills the move list of a ply with the legal moves of the player to move, best
+	 * looking moves first.
+	 * 
+	 * @return the number of legal moves
+	 */
+	private int generateMoves(int ply) {
+		return generateMoves(board, moves[ply], orderKeys[ply]);
+	}
+
+	/**
+	 * Fills a move list with the legal moves of the player to move on a board,
+	 * best looking moves first. Moves that earn another turn come first, then
+	 * captures by the number of marbles they win, then the rest in pit order.
+	 * 
+	 * @param board    the position to generate moves for
+	 * @param moveList the array the moves are written into
+	 * @param keys     an array of the same length used for sorting
+	 * @return the number of legal moves
+	 */
+	static int generateMoves(Board board, int[] moveList, int[] keys) {
+		int player = board.getCurrentPlayer();
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int count = 0;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			int seedCount = board.getSeeds(pit);
+			if (seedCount == 0) {
+				continue;
+			}
+			int key = orderKey(board, pit, seedCount, player);
+
+			// Insertion sort, keeping pit order between moves with equal keys
+			int i = count++;
+			while (i > 0 && keys[i - 1] < key) {
+				moveList[i] = moveList[i - 1];
+				keys[i] = keys[i - 1];
+				i--;
+			}
+			moveList[i] = pit;
+			keys[i] = key;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns how promising a move looks before it is searched: moves that earn
+	 * another turn first, then captures by the number of marbles they win.
+	 */
+	private static int orderKey(Board board, int pit, int seedCount, int player) {
+		int endPitIndex = Board.getEndSlot(pit, seedCount, player);
+		if (endPitIndex == Board.getStore(player)) {
+			return EXTRA_TURN_ORDER;
+		}
+		// A move shorter than a full lap ends in an empty pit only if it was empty
+		if (seedCount < Board.SLOT_COUNT - 1 && Board.getSide(endPitIndex) == player
+				&& board.getSeeds(endPitIndex) == 0) {
+			int oppositeCount = board.getSeeds(Board.getOppositePit(endPitIndex));
+			if (oppositeCount != 0) {
+				return oppositeCount + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns the number of moves the engine looks ahead.
+	 * 
+	 * @return the search depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Sets the number of moves the engine looks ahead.
+	 * 
+	 * @param depth the number of moves to look ahead, from 1 to {@link #MAX_PLY}
+	 * @throws IllegalArgumentException if the depth is out of range
+	 */
+	public void setDepth(int depth) {
+		if (depth < 1 || depth > MAX_PLY) {
+			throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_PLY + ": " + depth);
+		}
+		this.depth = depth;
+	}
+
+	/**
+	 * Returns the time allowed for each move.
+	 * 
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	public long getTimeLimit() {
+		return timeLimitMillis;
+	}
+
+	/**
+	 * Sets the time allowed for each move. The search stops at the first clock
+	 * check after the limit, so a move can take slightly longer than the limit;
+	 * the amount is reported by {@link #getLastOverrunNanos()}.
+	 * 
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 * @throws IllegalArgumentException if the time limit is negative
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+		}
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Returns the most positions searched for each move.
+	 * 
+	 * @return the node limit, or 0 if there is no limit
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Sets the most positions searched for each move. Like the time limit, the
+	 * node limit is checked every 1024 positions and never cuts short the first
+	 * depth, so that a move is always found.
+	 * 
+	 * @param nodeLimit the node limit, or 0 for no limit
+	 * @throws IllegalArgumentException if the node limit is negative
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		if (nodeLimit < 0) {
+			throw new IllegalArgumentException("Node limit cannot be negative: " + nodeLimit);
+		}
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Returns the most noise added to the score of each move at the root.
+	 * 
+	 * @return the noise level in quarter marbles
+	 */
+	public int getNoise() {
+		return noise;
+	}
+
+	/**
+	 * Sets the most noise added to the score of each move at the root. Every move
+	 * is given a random offset from minus to plus the noise level for each search.
+	 * 
+	 * @param noise  the noise level in quarter marbles, or 0 for none
+	 * @param random the source of the offsets
+	 * @throws IllegalArgumentException if the noise level is negative
+	 */
+	public void setNoise(int noise, Random random) {
+		if (noise < 0) {
+			throw new IllegalArgumentException("Noise cannot be negative: " + noise);
+		}
+		this.noise = noise;
+		noiseRandom = random;
+	}
+
+	/**
+	 * Returns the deepest search that was completed for the last move.
+	 * 
+	 * @return the number of moves looked ahead for the last move
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns how long the last move took to choose.
+	 * 
+	 * @return the time spent on the last move in nanoseconds
+	 */
+	public long getLastSearchNanos() {
+		return lastSearchNanos;
+	}
+
+	/**
+	 * Returns how far the last move went over the time limit.
+	 * 
+	 * @return the time spent past the limit in nanoseconds, or 0 if the move was
+	 *         chosen in time or there is no limit
+	 */
+	public long getLastOverrunNanos() {
+		return lastOverrunNanos;
+	}
+
+	/**
+	 * Returns the largest overrun of the time limit over every move this engine
+	 * has chosen.
+	 * 
+	 * @return the largest time spent past the limit in nanoseconds
+	 */
+	public long getMaxOverrunNanos() {
+		return maxOverrunNanos;
+	}
+
+	/**
+	 * Returns the transposition table the engine remembers positions in.
+	 * 
+	 * @return the transposition table, or null if the engine does not use one
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Sets the transposition table the engine remembers positions in. Results in
+	 * the table are kept from one move to the next.
+	 * 
+	 * @param table the transposition table to be used, or null to search without
+	 *              one
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Returns the number of positions answered from the transposition table while
+	 * choosing the last move.
+	 * 
+	 * @return the number of transposition table hits for the last move
+	 */
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	/**
+	 * Returns the number of positions whose remaining moves were skipped by an
+	 * alpha-beta cutoff in the last search.
+	 * 
+	 * @return the number of cutoffs in the last search
+	 */
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * Returns the statistics of the last move chosen.
+	 * 
+	 * @return the statistics of the last search, or null if no move has been
+	 *         chosen yet
+	 */
+	public SearchStats getLastStats() {
+		return lastStats;
+	}
+
+	/**
+	 * Returns the number of positions searched while choosing the last move.
+	 * 
+	 * @return the number of nodes searched for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the score of the last move chosen, from the point of view of the
+	 * player who was to move.
+	 * 
+	 * @return the score of the last move in quarter marbles
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+}
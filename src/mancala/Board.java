@@ -0,0 +1,478 @@
+package mancala;
+
+/**
+ * The count-only rules engine for the game Mancala. The board is stored as a
+ * 14-slot array of seed counts, where indices 0-5 are Player 1's pits, index 6
+ * is Player 1's store, indices 7-12 are Player 2's pits and index 13 is Player
+ * 2's store. No Marble objects are created or moved by this class, so it can be
+ * used for simulations without any of the overhead of the graphical board.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class Board {
+	public static final int SLOT_COUNT = 14;
+	public static final int PITS_PER_SIDE = 6;
+	public static final int PLAYER_ONE_STORE = 6;
+	public static final int PLAYER_TWO_STORE = 13;
+
+	/*
+	 * A move made with makeMove is undone from a single long rather than an undo
+	 * object, so that a search can make and unmake millions of moves without
+	 * creating garbage. The fields of the undo record are packed as follows.
+	 */
+	private static final int UNDO_PIT_SHIFT = 0;
+	private static final int UNDO_END_SHIFT = 4;
+	private static final int UNDO_SEEDS_SHIFT = 8;
+	private static final int UNDO_CAPTURED_SHIFT = 24;
+	private static final int UNDO_PLAYER_SHIFT = 40;
+	private static final int UNDO_EXTRA_TURN_SHIFT = 41;
+
+	private final int[] seeds = new int[SLOT_COUNT];
+	private final int[] sideTotals = new int[2];
+	private int currentPlayer;
+
+	/**
+	 * Creates an empty board with Player 1 (player 0) to move.
+	 */
+	public Board() {
+		currentPlayer = 0;
+	}
+
+	/**
+	 * Creates a copy of the given board.
+	 *
+	 * @param other the board to be copied
+	 */
+	public Board(Board other) {
+		copyFrom(other);
+	}
+
+	/**
+	 * Overwrites this board with the seed counts and current player of another
+	 * board.
+	 *
+	 * @param other the board to be copied
+	 */
+	public void copyFrom(Board other) {
+		System.arraycopy(other.seeds, 0, seeds, 0, SLOT_COUNT);
+		sideTotals[0] = other.sideTotals[0];
+		sideTotals[1] = other.sideTotals[1];
+		currentPlayer = other.currentPlayer;
+	}
+
+	/**
+	 * Resets the board to the starting position. Every pit receives the given
+	 * number of seeds, both stores are emptied and Player 1 moves first.
+	 *
+	 * @param seedsPerPit the number of seeds placed into each pit
+	 */
+	public void reset(int seedsPerPit) {
+		for (int i = 0; i < SLOT_COUNT; i++) {
+			seeds[i] = isStore(i) ? 0 : seedsPerPit;
+		}
+		sideTotals[0] = PITS_PER_SIDE * seedsPerPit;
+		sideTotals[1] = PITS_PER_SIDE * seedsPerPit;
+		currentPlayer = 0;
+	}
+
+	/**
+	 * Sows the seeds of the selected pit counter-clockwise around the board for
+	 * the current player, skipping the opponent's store. If there are enough seeds
+	 * to travel all the way around the board, the selected pit receives seeds as
+	 * well. The legality of the move is not checked.
+	 *
+	 * @param selectedPitIndex index of the pit to be sown
+	 * @return the index of the slot that received the last seed
+	 */
+	public int sow(int selectedPitIndex) {
+		int seedCount = seeds[selectedPitIndex];
+		add(selectedPitIndex, -seedCount);
+		distribute(selectedPitIndex, seedCount, currentPlayer, 1);
+		return getEndSlot(selectedPitIndex, seedCount, currentPlayer);
+	}
+
+	/**
+	 * Adds (or with a negative delta, takes back) the seeds of one sowing without
+	 * stepping through them one at a time. Each full lap puts one seed into every
+	 * one of the 13 slots the player can reach, including the selected pit, so the
+	 * laps are added to all of them at once. The seeds left over after the laps
+	 * fill the slots right after the selected pit, which is a contiguous range of
+	 * the array apart from wrapping past index 13 and the skipped store.
+	 */
+	private void distribute(int selectedPitIndex, int seedCount, int player, int delta) {
+		int skippedStore = getStore(1 - player);
+		int laps = seedCount / (SLOT_COUNT - 1);
+		int remainder = seedCount % (SLOT_COUNT - 1);
+
+		if (laps > 0) {
+			for (int i = 0; i < SLOT_COUNT; i++) {
+				seeds[i] += laps * delta;
+			}
+			seeds[skippedStore] -= laps * delta;
+			sideTotals[0] += PITS_PER_SIDE * laps * delta;
+			sideTotals[1] += PITS_PER_SIDE * laps * delta;
+		}
+
+		// The range of the remainder is one slot longer if it passes the skipped store
+		boolean passesSkippedStore = getDistance(selectedPitIndex, skippedStore) <= remainder;
+		int rangeEnd = selectedPitIndex + remainder + (passesSkippedStore ? 1 : 0);
+		for (int i = selectedPitIndex + 1; i <= Math.min(rangeEnd, SLOT_COUNT - 1); i++) {
+			add(i, delta);
+		}
+		for (int i = 0; i <= rangeEnd - SLOT_COUNT; i++) {
+			add(i, delta);
+		}
+		if (passesSkippedStore) {
+			seeds[skippedStore] -= delta;
+		}
+	}
+
+	/**
+	 * Plays a complete turn for the current player: the selected pit is sown, a
+	 * capture is made if the last seed lands in an empty pit of the current
+	 * player, and the turn passes to the other player unless the last seed lands
+	 * in the current player's store. The end-of-game sweep is not made, so the
+	 * move can be undone exactly with {@link #unmakeMove(long)}. The legality of
+	 * the move is not checked.
+	 *
+	 * @param selectedPitIndex index of the pit to be sown
+	 * @return an undo record describing the move
+	 */
+	public long makeMove(int selectedPitIndex) {
+		int player = currentPlayer;
+		int seedCount = seeds[selectedPitIndex];
+		int endPitIndex = sow(selectedPitIndex);
+		int captured = 0;
+		if (isCapture(endPitIndex)) {
+			captured = capture(endPitIndex);
+		}
+		boolean extraTurn = endPitIndex == getStore(player);
+		if (!extraTurn) {
+			switchPlayer();
+		}
+		return ((long) selectedPitIndex << UNDO_PIT_SHIFT) | ((long) endPitIndex << UNDO_END_SHIFT)
+				| ((long) seedCount << UNDO_SEEDS_SHIFT) | ((long) captured << UNDO_CAPTURED_SHIFT)
+				| ((long) player << UNDO_PLAYER_SHIFT) | (extraTurn ? 1L << UNDO_EXTRA_TURN_SHIFT : 0);
+	}
+
+	/**
+	 * Restores the board to the exact position it was in before the move
+	 * described by the undo record was made. Moves must be undone in the reverse
+	 * order they were made in.
+	 *
+	 * @param undo an undo record returned by {@link #makeMove(int)}
+	 */
+	public void unmakeMove(long undo) {
+		int selectedPitIndex = getMovePit(undo);
+		int endPitIndex = getMoveEndSlot(undo);
+		int seedCount = (int) (undo >>> UNDO_SEEDS_SHIFT) & 0xFFFF;
+		int captured = getMoveCaptured(undo);
+		currentPlayer = (int) (undo >>> UNDO_PLAYER_SHIFT) & 1;
+
+		// Return the captured seeds and the capturing seed to their pits
+		if (captured != 0) {
+			seeds[getStore(currentPlayer)] -= captured + 1;
+			add(getOppositePit(endPitIndex), captured);
+			add(endPitIndex, 1);
+		}
+
+		// Take back every seed the move sowed, then refill the selected pit
+		distribute(selectedPitIndex, seedCount, currentPlayer, -1);
+		add(selectedPitIndex, seedCount);
+	}
+
+	/**
+	 * Checks whether the last seed of a move landing in the given slot results in
+	 * a capture. A capture happens when the last seed lands in an empty pit on the
+	 * current player's side and the pit across the board has one or more seeds.
+	 * This must be called after the seeds have been sown.
+	 *
+	 * @param endPitIndex index of the slot that received the last seed
+	 * @return true if the move captures, false otherwise
+	 */
+	public boolean isCapture(int endPitIndex) {
+		if (getSide(endPitIndex) != currentPlayer) {
+			return false;
+		}
+		return seeds[endPitIndex] == 1 && seeds[getOppositePit(endPitIndex)] != 0;
+	}
+
+	/**
+	 * Moves the seeds of a captured pit, along with the capturing seed, into the
+	 * current player's store.
+	 *
+	 * @param endPitIndex index of the capturing pit
+	 * @return the number of seeds taken from the opponent's pit
+	 */
+	public int capture(int endPitIndex) {
+		int oppositePitIndex = getOppositePit(endPitIndex);
+		int captured = seeds[oppositePitIndex];
+		if (captured != 0) {
+			seeds[getStore(currentPlayer)] += captured + 1;
+			add(oppositePitIndex, -captured);
+			add(endPitIndex, -1);
+		}
+		return captured;
+	}
+
+	/**
+	 * Checks whether all six pits on the given side of the board are empty.
+	 *
+	 * @param side the side to be checked (0 for Player 1, 1 for Player 2)
+	 * @return true if the side has no seeds left, false otherwise
+	 */
+	public boolean isSideEmpty(int side) {
+		return sideTotals[side] == 0;
+	}
+
+	/**
+	 * Checks whether the game is over, which happens once either side of the board
+	 * has no seeds left.
+	 *
+	 * @return true if the game is over, false otherwise
+	 */
+	public boolean isGameOver() {
+		return sideTotals[0] == 0 || sideTotals[1] == 0;
+	}
+
+	/**
+	 * Moves every seed still left in a pit into the store of the pit's owner. This
+	 * is done once the game is over.
+	 */
+	public void sweep() {
+		for (int i = 0; i < SLOT_COUNT; i++) {
+			if (!isStore(i)) {
+				seeds[i] = 0;
+			}
+		}
+		seeds[PLAYER_ONE_STORE] += sideTotals[0];
+		seeds[PLAYER_TWO_STORE] += sideTotals[1];
+		sideTotals[0] = 0;
+		sideTotals[1] = 0;
+	}
+
+	/**
+	 * Checks whether the current player may sow the given pit. The pit must be on
+	 * the current player's side and must contain at least one seed.
+	 *
+	 * @param selectedPitIndex index of the pit to be checked
+	 * @return true if the move is legal, false otherwise
+	 */
+	public boolean isLegal(int selectedPitIndex) {
+		return getSide(selectedPitIndex) == currentPlayer && seeds[selectedPitIndex] != 0;
+	}
+
+	/**
+	 * Changes the turn to the opposite player.
+	 */
+	public void switchPlayer() {
+		currentPlayer = 1 - currentPlayer;
+	}
+
+	/**
+	 * Returns the number of seeds in the given slot.
+	 *
+	 * @param slot index of the pit or store
+	 * @return the number of seeds in the slot
+	 */
+	public int getSeeds(int slot) {
+		return seeds[slot];
+	}
+
+	/**
+	 * Sets the number of seeds in the given slot.
+	 *
+	 * @param slot      index of the pit or store
+	 * @param seedCount the number of seeds to be placed in the slot
+	 */
+	public void setSeeds(int slot, int seedCount) {
+		add(slot, seedCount - seeds[slot]);
+	}
+
+	/**
+	 * Returns the number of seeds in the given player's store.
+	 *
+	 * @param player the player whose store is read (0 or 1)
+	 * @return the number of seeds in the player's store
+	 */
+	public int getStoreCount(int player) {
+		return seeds[getStore(player)];
+	}
+
+	/**
+	 * Returns the number of seeds left in the six pits on the given side of the
+	 * board. The total is kept up to date as seeds are moved, so this does not
+	 * scan the pits.
+	 *
+	 * @param side the side to be read (0 for Player 1, 1 for Player 2)
+	 * @return the number of seeds on the side
+	 */
+	public int getSideCount(int side) {
+		return sideTotals[side];
+	}
+
+	/**
+	 * Returns the player whose turn it is.
+	 *
+	 * @return 0 for Player 1, 1 for Player 2
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * Sets the player whose turn it is.
+	 *
+	 * @param currentPlayer 0 for Player 1, 1 for Player 2
+	 */
+	public void setCurrentPlayer(int currentPlayer) {
+		this.currentPlayer = currentPlayer;
+	}
+
+	/**
+	 * Changes the number of seeds in a slot, keeping the side totals up to date.
+	 */
+	private void add(int slot, int amount) {
+		seeds[slot] += amount;
+		if (slot < PLAYER_ONE_STORE) {
+			sideTotals[0] += amount;
+		} else if (slot != PLAYER_TWO_STORE && slot != PLAYER_ONE_STORE) {
+			sideTotals[1] += amount;
+		}
+	}
+
+	/**
+	 * Returns the pit that was sown by the move described by an undo record.
+	 *
+	 * @param undo an undo record returned by {@link #makeMove(int)}
+	 * @return index of the sown pit
+	 */
+	public static int getMovePit(long undo) {
+		return (int) (undo >>> UNDO_PIT_SHIFT) & 0xF;
+	}
+
+	/**
+	 * Returns the slot that received the last seed of the move described by an
+	 * undo record.
+	 *
+	 * @param undo an undo record returned by {@link #makeMove(int)}
+	 * @return index of the slot the move ended in
+	 */
+	public static int getMoveEndSlot(long undo) {
+		return (int) (undo >>> UNDO_END_SHIFT) & 0xF;
+	}
+
+	/**
+	 * Returns the number of seeds taken from the opponent by the move described by
+	 * an undo record.
+	 *
+	 * @param undo an undo record returned by {@link #makeMove(int)}
+	 * @return the number of captured seeds, or 0 if the move did not capture
+	 */
+	public static int getMoveCaptured(long undo) {
+		return (int) (undo >>> UNDO_CAPTURED_SHIFT) & 0xFFFF;
+	}
+
+	/**
+	 * Returns whether the move described by an undo record earned the moving
+	 * player another turn.
+	 *
+	 * @param undo an undo record returned by {@link #makeMove(int)}
+	 * @return true if the same player moves again, false otherwise
+	 */
+	public static boolean isExtraTurn(long undo) {
+		return (undo & (1L << UNDO_EXTRA_TURN_SHIFT)) != 0;
+	}
+
+	/**
+	 * Returns the slot a seed sown from the given slot lands in next, skipping the
+	 * store of the player who is not moving.
+	 *
+	 * @param slot   the slot the seed is leaving
+	 * @param player the player who is sowing
+	 * @return the next slot to receive a seed
+	 */
+	public static int nextSlot(int slot, int player) {
+		slot = (slot + 1) % SLOT_COUNT;
+		if (slot == getStore(1 - player)) {
+			slot = (slot + 1) % SLOT_COUNT;
+		}
+		return slot;
+	}
+
+	/**
+	 * Returns the slot that receives the last seed when the given number of seeds
+	 * are sown from a pit. If the seeds travel exactly a whole number of times
+	 * around the board, the last seed lands back in the selected pit.
+	 *
+	 * @param selectedPitIndex index of the pit to be sown
+	 * @param seedCount        the number of seeds sown
+	 * @param player           the player who is sowing
+	 * @return the index of the slot that receives the last seed
+	 */
+	public static int getEndSlot(int selectedPitIndex, int seedCount, int player) {
+		if (seedCount == 0) {
+			return selectedPitIndex;
+		}
+		int remainder = seedCount % (SLOT_COUNT - 1);
+		if (remainder == 0) {
+			return selectedPitIndex;
+		}
+		int skippedStore = getStore(1 - player);
+		if (getDistance(selectedPitIndex, skippedStore) <= remainder) {
+			remainder++;
+		}
+		return (selectedPitIndex + remainder) % SLOT_COUNT;
+	}
+
+	/**
+	 * Returns how many slots forward the second slot lies from the first, counting
+	 * every slot of the board.
+	 */
+	private static int getDistance(int from, int to) {
+		return (to - from + SLOT_COUNT) % SLOT_COUNT;
+	}
+
+	/**
+	 * Returns the side of the board that the given slot belongs to.
+	 *
+	 * @param slot index of the pit or store
+	 * @return 0 for Player 1's pits, 1 for Player 2's pits and -1 for the stores
+	 */
+	public static int getSide(int slot) {
+		if (isStore(slot)) {
+			return -1;
+		}
+		return slot < PLAYER_ONE_STORE ? 0 : 1;
+	}
+
+	/**
+	 * Checks whether the given slot is one of the two stores.
+	 *
+	 * @param slot index of the pit or store
+	 * @return true if the slot is a store, false otherwise
+	 */
+	public static boolean isStore(int slot) {
+		return slot == PLAYER_ONE_STORE || slot == PLAYER_TWO_STORE;
+	}
+
+	/**
+	 * Returns the index of the given player's store.
+	 *
+	 * @param player 0 for Player 1, 1 for Player 2
+	 * @return the index of the player's store
+	 */
+	public static int getStore(int player) {
+		return player == 0 ? PLAYER_ONE_STORE : PLAYER_TWO_STORE;
+	}
+
+	/**
+	 * Returns the index of the pit directly across the board from the given pit.
+	 *
+	 * @param pit index of a pit
+	 * @return index of the opposite pit
+	 */
+	public static int getOppositePit(int pit) {
+		return 12 - pit;
+	}
+}
@@ -4,8 +4,11 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.*;
 
@@ -17,6 +20,11 @@ import javax.swing.*;
  */
 @SuppressWarnings("serial")
 public class Controller extends JFrame implements MouseListener, KeyListener {
+	// Pause before each of the computer opponent's moves, in milliseconds
+	private static final long COMPUTER_MOVE_PAUSE = 500;
+	// Pause before the end screen is shown, so the last move can be seen
+	private static final long END_GAME_PAUSE = 200;
+
 	public Container c;
 	public CardLayout card;
 	public WelcomePanel welcome;
@@ -28,6 +36,23 @@ public class Controller extends JFrame implements MouseListener, KeyListener {
 	
 	public List<String> keysTyped = new ArrayList<String>();
 
+	/*
+	 * The computer opponent searches on this one thread, away from the Event
+	 * Dispatch Thread, so the window keeps responding while it thinks. Its moves
+	 * are played back on the Event Dispatch Thread. Cancelling bumps the task
+	 * generation, so a search that is already running has its move thrown away,
+	 * and asks the engine to stop, so the thread is soon free for the next game.
+	 */
+	private final ScheduledExecutorService computerThread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Computer opponent");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private ScheduledFuture<?> pendingTask;
+	private int taskGeneration;
+	private boolean computerMovePending;
+	private boolean endScreenPending;
+
 
 	/**
 	 * Constructor for the Controller. This is how to program switches screens and
@@ -124,8 +149,8 @@ public class Controller extends JFrame implements MouseListener, KeyListener {
 	 * Creates the end game panel that is shown once the game is over.
 	 */
 	public void createEndGame() {
-		end = new EndGamePanel(play.getGame().getWinner(), play.getGame().getStoreList().get(6).getMarbleList().size(),
-				play.getGame().getStoreList().get(13).getMarbleList().size(), play.getSinglePlayer());
+		end = new EndGamePanel(play.getGame().getWinner(), play.getGame().getScore(0), play.getGame().getScore(1),
+				play.getSinglePlayer());
 		end.getExitGameButton().addMouseListener(this);
 		end.getPlayAgainButton().addMouseListener(this);
 		end.getHomeButton().addMouseListener(this);
@@ -134,54 +159,109 @@ public class Controller extends JFrame implements MouseListener, KeyListener {
 
 	/**
 	 * Makes the computer select a pit to move. This is called after the user makes
-	 * a move in single player mode.
+	 * a move in single player mode. After a short pause, the computer searches
+	 * for its move on the computer opponent's thread until its time limit runs
+	 * out, so each of its moves takes about the same time however hard the
+	 * position is.
 	 */
 	public void singlePlayerMove() {
-		Timer timer = new Timer();
-		TimerTask action = new TimerTask() {
-			public void run() {
-				/*
-				 * Sets a timer for moving the computer opponent. After 2 seconds, a random pit
-				 * index from its side of the board is chosen. If the selected pit is empty, a
-				 * new random pit is selected until a non-empty pit is selected.
-				 */			
-
-				int bestPitIndex = play.chooseOpponentPit();
-				play.playerMove(bestPitIndex);
-				if (play.getGame().hasWinner()) {
-					play.getGame().setWinner();
-					try {
-						Thread.sleep(200);
-					} catch (InterruptedException e1) {
-						// TODO Auto-generated catch block
-						e1.printStackTrace();
-					}
-					createEndGame();
-					card.show(c, "end");
-				}
-
-				// If the computer opponent doesn't land in their store, the timer is
-				// stopped and prevented from moving the player again
-				if (!play.getGame().getsAnotherMove()) {
-					timer.cancel();
-				}
-			}
-		};
 		if (play.getGame().hasWinner()) {
-			play.getGame().setWinner();
-			try {
-				Thread.sleep(200);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
+			showEndGame();
+		} else if (play.getGame().getCurrentPlayer() == 1 && !computerMovePending) {
+			scheduleComputerMove();
+		}
+	}
+
+	/**
+	 * Starts the search for the computer opponent's next move after a short
+	 * pause. The search works on a copy of the board.
+	 */
+	private void scheduleComputerMove() {
+		int generation = taskGeneration;
+		Board position = new Board(play.getGame().getBoard());
+		SearchEngine engine = play.getOpponentEngine();
+		// Cleared here rather than on the computer thread, so a stop requested after
+		// the task starts is never lost
+		engine.clearStop();
+		computerMovePending = true;
+		pendingTask = computerThread.schedule(() -> {
+			int bestPitIndex = engine.chooseMove(position);
+			SearchMonitor.getInstance().publish(engine.getLastStats());
+			SwingUtilities.invokeLater(() -> applyComputerMove(generation, bestPitIndex));
+		}, COMPUTER_MOVE_PAUSE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Plays the computer opponent's move on the Event Dispatch Thread, unless it
+	 * was cancelled while the computer was searching.
+	 */
+	private void applyComputerMove(int generation, int bestPitIndex) {
+		if (generation != taskGeneration) {
+			return;
+		}
+		computerMovePending = false;
+		MoveResult result = play.playerMove(bestPitIndex);
+		if (result == null) {
+			// A pit that cannot be moved is ignored, as a click on one is; the
+			// computer searches the position again
+			scheduleComputerMove();
+			return;
+		}
+		if (result.isGameOver()) {
+			showEndGame();
+		} else if (result.isExtraTurn()) {
+			// The computer opponent landed in their store and moves again
+			scheduleComputerMove();
+		} else {
+			// The computer thinks about its replies while the human player chooses a pit
+			play.ponderOpponentReplies();
+		}
+	}
+
+	/**
+	 * Shows the end screen after a short pause, unless the game is left first.
+	 */
+	private void showEndGame() {
+		if (endScreenPending) {
+			return;
+		}
+		cancelComputerMoves();
+		play.getGame().setWinner();
+		int generation = taskGeneration;
+		endScreenPending = true;
+		pendingTask = computerThread.schedule(() -> SwingUtilities.invokeLater(() -> {
+			if (generation == taskGeneration) {
+				endScreenPending = false;
+				createEndGame();
+				card.show(c, "end");
 			}
-			createEndGame();
-			card.show(c, "end");
+		}), END_GAME_PAUSE, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Cancels the computer opponent's pending move and the pending end screen. A
+	 * search that has already started is asked to stop, and its move is never
+	 * played. This waits for the stopped search to return, which it does at its
+	 * next clock check, so the engine is no longer in use afterwards and can be
+	 * shut down or replaced.
+	 */
+	public void cancelComputerMoves() {
+		taskGeneration++;
+		if (pendingTask != null) {
+			pendingTask.cancel(false);
+			pendingTask = null;
 		}
-		// The computer opponent's timer is started as soon as the human player has
-		// finished their turn
-		if (play.getGame().getCurrentPlayer() == 1 && !play.getGame().hasWinner()) {
-			timer.schedule(action, 1500, 1500);
+		play.getOpponentEngine().requestStop();
+		try {
+			computerThread.submit(() -> {
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			// The empty task cannot fail
 		}
+		computerMovePending = false;
+		endScreenPending = false;
 	}
 
 	/*
@@ -206,38 +286,43 @@ public class Controller extends JFrame implements MouseListener, KeyListener {
     		card.show(c, "welcome");
     	}
     	else if (bclicked == settings.getTwoPlayerButton() || bclicked == help.getResumeButton()) {
+    		play.requestHint();
     		card.show(c, "play");
     	}
     	else if (bclicked == settings.getSinglePlayerButton()) {
+    		// Waits for any stale search, so the old engine can be shut down
+    		cancelComputerMoves();
     		play.setSinglePlayer(true);
+    		play.setDifficulty(settings.getDifficulty());
+    		play.ponderOpponentReplies();
+    		play.requestHint();
     		card.show(c, "play");
     	}
     	else if (bclicked.getText() == " ") {
     		if (play.getSinglePlayer()) {
     			singlePlayerMove();
-    		}
-    		if (play.getGame().hasWinner()) {
-    			play.getGame().setWinner();
-    			try {
-					Thread.sleep(200);
-				} catch (InterruptedException e1) {
-					e1.printStackTrace();
-				}
-				createEndGame();
-				card.show(c, "end");
+    		} else if (play.getGame().hasWinner()) {
+				showEndGame();
 			}
 		} else if (bclicked == play.getHomeButton()) {
+			cancelComputerMoves();
 			play.setSinglePlayer(false);
 			play.resetBoardGraphics();
 			card.show(c, "welcome");
 		} else if (bclicked == play.getHelpButton()) {
 			card.show(c, "help");
 		} else if (bclicked == end.getHomeButton()) {
+			cancelComputerMoves();
 			play.resetBoardGraphics();
 			play.setSinglePlayer(false);
 			card.show(c, "welcome");
 		} else if (bclicked == end.getPlayAgainButton()) {
+			cancelComputerMoves();
 			play.resetBoardGraphics();
+			if (play.getSinglePlayer()) {
+				play.ponderOpponentReplies();
+			}
+			play.requestHint();
 			card.show(c, "play");
 		}
 		
@@ -306,15 +391,7 @@ public class Controller extends JFrame implements MouseListener, KeyListener {
 		}
 
 		if (play.getGame().hasWinner()) {
-			play.getGame().setWinner();
-			try {
-				Thread.sleep(200);
-			} catch (InterruptedException e1) {
-				e1.printStackTrace();
-			}
-			createEndGame();
-			play.resetBoardGraphics();
-			card.show(c, "end");
+			showEndGame();
 		}
 	}
 
@@ -0,0 +1,123 @@
+package mancala;
+
+import java.util.Random;
+
+/**
+ * The strengths the computer opponent can play at. Each level is a budget for
+ * every move: the most moves looked ahead, the most positions searched and the
+ * most time taken, whichever runs out first. The search enforces all three, so
+ * even the strongest level costs a bounded amount of work per move. The weaker
+ * levels also add random noise to the score of each move, so they make the
+ * kind of mistakes a beginner would rather than always playing the best move
+ * they can see.
+ *
+ * <p>
+ * The levels without noise also play from the opening book and the tablebase
+ * when those files exist, and solve the endgame exactly. Only the strongest
+ * level searches with several threads and ponders on the human player's time.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public enum Difficulty {
+	BEGINNER("Beginner", 1, 2000, 100, 6 * Evaluation.SCORE_SCALE),
+	EASY("Easy", 3, 20000, 200, 3 * Evaluation.SCORE_SCALE),
+	MEDIUM("Medium", 6, 200000, 300, Evaluation.SCORE_SCALE),
+	HARD("Hard", 14, 2000000, 500, 0),
+	EXPERT("Expert", AlphaBetaEngine.MAX_PLY, 10000000, 1000, 0);
+
+	public static final Difficulty DEFAULT = EXPERT;
+
+	// The most threads the strongest level searches with, so it stays polite on
+	// shared machines
+	private static final int MAX_THREADS = 4;
+	private static final int TABLE_MEGABYTES = AlphaBetaEngine.DEFAULT_TABLE_MEGABYTES;
+
+	private final String label;
+	private final int depth;
+	private final long nodeLimit;
+	private final long timeLimitMillis;
+	private final int noise;
+
+	Difficulty(String label, int depth, long nodeLimit, long timeLimitMillis, int noise) {
+		this.label = label;
+		this.depth = depth;
+		this.nodeLimit = nodeLimit;
+		this.timeLimitMillis = timeLimitMillis;
+		this.noise = noise;
+	}
+
+	/**
+	 * Creates the search that plays at this level, without the opening book,
+	 * tablebase or endgame solver.
+	 *
+	 * @return a new search engine
+	 */
+	public SearchEngine createSearchEngine() {
+		if (this == EXPERT) {
+			int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS);
+			LazySmpEngine engine = new LazySmpEngine(threadCount, timeLimitMillis, TABLE_MEGABYTES);
+			engine.setNodeLimit(nodeLimit);
+			return engine;
+		}
+		AlphaBetaEngine engine = new AlphaBetaEngine(depth, timeLimitMillis, new TranspositionTable(TABLE_MEGABYTES));
+		engine.setNodeLimit(nodeLimit);
+		engine.setNoise(noise, new Random());
+		return engine;
+	}
+
+	/**
+	 * Returns the most moves looked ahead at this level.
+	 *
+	 * @return the search depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the most positions searched for each move at this level, by each
+	 * thread.
+	 *
+	 * @return the node limit
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Returns the most time taken for each move at this level.
+	 *
+	 * @return the time limit in milliseconds
+	 */
+	public long getTimeLimit() {
+		return timeLimitMillis;
+	}
+
+	/**
+	 * Returns the most noise added to the score of each move at this level.
+	 *
+	 * @return the noise level in quarter marbles, or 0 for none
+	 */
+	public int getNoise() {
+		return noise;
+	}
+
+	/**
+	 * Returns whether this level plays from the opening book and the tablebase,
+	 * and solves the endgame exactly.
+	 *
+	 * @return true if the level plays perfectly where it can, false otherwise
+	 */
+	public boolean usesPerfectPlay() {
+		return noise == 0;
+	}
+
+	/**
+	 * Returns the name of the level, as shown in the settings.
+	 *
+	 * @return the name of the level
+	 */
+	public String toString() {
+		return label;
+	}
+}
@@ -0,0 +1,133 @@
+package mancala;
+
+/**
+ * A computer opponent that solves the game exactly with an
+ * {@link EndgameSolver} once few enough seeds are left in the pits, and leaves
+ * every other position to another engine. If a solve cannot finish in time,
+ * the other engine chooses the move instead, in the time the other engine's
+ * limit leaves after the solve, so the move still keeps to one budget.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class EndgameEngine extends FallbackEngine {
+	// Positions with fewer seeds in the pits are usually solved in under a second
+	public static final int DEFAULT_SEED_THRESHOLD = 13;
+
+	private final EndgameSolver solver;
+	private final int seedThreshold;
+	private final long timeLimitMillis;
+	private boolean lastMoveSolved;
+
+	/**
+	 * Creates an opponent that solves positions with fewer than
+	 * {@link #DEFAULT_SEED_THRESHOLD} seeds in the pits.
+	 *
+	 * @param fallback        the engine used for positions that are not solved
+	 * @param timeLimitMillis the most time a solve may take, in milliseconds,
+	 *                        which should be less than the fallback engine's
+	 *                        time limit
+	 */
+	public EndgameEngine(SearchEngine fallback, long timeLimitMillis) {
+		this(new EndgameSolver(), fallback, DEFAULT_SEED_THRESHOLD, timeLimitMillis);
+	}
+
+	/**
+	 * Creates an opponent that solves positions with fewer than the given number
+	 * of seeds in the pits.
+	 *
+	 * @param solver          the solver used for the endgame
+	 * @param fallback        the engine used for positions that are not solved
+	 * @param seedThreshold   the number of seeds in the pits below which positions
+	 *                        are solved
+	 * @param timeLimitMillis the most time a solve may take, in milliseconds, or 0
+	 *                        for no limit; it should be less than the fallback
+	 *                        engine's time limit
+	 */
+	public EndgameEngine(EndgameSolver solver, SearchEngine fallback, int seedThreshold, long timeLimitMillis) {
+		super(fallback);
+		this.solver = solver;
+		this.seedThreshold = seedThreshold;
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board, solving
+	 * the rest of the game if few enough seeds are left in the pits.
+	 *
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	public int chooseMove(Board position) {
+		stopPondering();
+		lastMoveSolved = false;
+		long startTime = System.nanoTime();
+		if (position.getSideCount(0) + position.getSideCount(1) < seedThreshold && !position.isGameOver()) {
+			int margin = solver.solve(position, timeLimitMillis);
+			lastMoveSolved = margin != EndgameSolver.UNSOLVED;
+			if (lastMoveSolved) {
+				int move = solver.getBestMove();
+				// The solver keeps no count of depth, hits or cutoffs
+				long nodesSearched = solver.getNodesSearched();
+				recordMove(nodesSearched, new SearchStats(nodesSearched, 0, 0, 0, System.nanoTime() - startTime,
+						margin * Evaluation.SCORE_SCALE, new int[] { move }));
+				return move;
+			}
+		}
+
+		// The time spent on a solve that gave up comes out of the fallback's budget
+		long moveTimeLimit = getTimeLimit();
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		if (moveTimeLimit == 0 || elapsedMillis == 0) {
+			return chooseFallbackMove(position);
+		}
+		setTimeLimit(Math.max(1, moveTimeLimit - elapsedMillis));
+		try {
+			return chooseFallbackMove(position);
+		} finally {
+			setTimeLimit(moveTimeLimit);
+		}
+	}
+
+	/**
+	 * Asks the solve or the other engine's search, whichever is running, to stop.
+	 */
+	public void requestStop() {
+		solver.requestStop();
+		super.requestStop();
+	}
+
+	/**
+	 * Withdraws a request to stop the solver and the other engine.
+	 */
+	public void clearStop() {
+		solver.clearStop();
+		super.clearStop();
+	}
+
+	/**
+	 * Returns whether the last move was found by solving the rest of the game.
+	 *
+	 * @return true if the last move was solved, false if it was searched
+	 */
+	public boolean isLastMoveSolved() {
+		return lastMoveSolved;
+	}
+
+	/**
+	 * Returns the number of seeds in the pits below which positions are solved.
+	 *
+	 * @return the seed threshold
+	 */
+	public int getSeedThreshold() {
+		return seedThreshold;
+	}
+
+	/**
+	 * Returns the solver used for the endgame.
+	 *
+	 * @return the endgame solver
+	 */
+	public EndgameSolver getSolver() {
+		return solver;
+	}
+}
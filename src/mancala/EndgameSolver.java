@@ -0,0 +1,217 @@
+package mancala;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Solves endgames exactly during play, for when no {@link Tablebase} has been
+ * generated. Every position is searched to the end of the game, and the result
+ * of each position solved is remembered in a hash map keyed by its
+ * {@link PackedBoard} key, so positions reached again by another order of moves
+ * and positions met on later moves of the same game are not searched again.
+ *
+ * <p>
+ * As in the tablebase, the result remembered for a position is the number of
+ * seeds the player to move will gain over the opponent from here on, which only
+ * depends on the seeds in the pits and on whose turn it is. The stores are left
+ * out of the key, so positions that only differ in their stores share an entry.
+ *
+ * <p>
+ * A solve gives up when it runs out of time or the map grows past its limit.
+ * The results found before then are exact and are kept for the next solve. The
+ * map is emptied when a new solve starts with it full.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class EndgameSolver {
+	public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+	public static final int UNSOLVED = Integer.MIN_VALUE;
+
+	private static final long TIME_CHECK_INTERVAL = 1023;
+
+	private final Map<Long, Integer> margins = new HashMap<>();
+	private final int maxEntries;
+	private long deadline;
+	private boolean stopped;
+	private volatile boolean stopRequested;
+	private long nodesSearched;
+	private int bestMove = -1;
+
+	/**
+	 * Creates a solver remembering up to {@link #DEFAULT_MAX_ENTRIES} positions.
+	 */
+	public EndgameSolver() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * Creates a solver remembering up to the given number of positions.
+	 *
+	 * @param maxEntries the most positions kept in the map
+	 */
+	public EndgameSolver(int maxEntries) {
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * Solves a position to the end of the game.
+	 *
+	 * @param board           the position to be solved, which is left unchanged
+	 * @param timeLimitMillis the most time the solve may take, in milliseconds, or
+	 *                        0 for no limit
+	 * @return the number of marbles the player to move will finish ahead by with
+	 *         perfect play, or {@link #UNSOLVED} if the solve gave up
+	 */
+	public int solve(Board board, long timeLimitMillis) {
+		if (margins.size() >= maxEntries) {
+			margins.clear();
+		}
+		deadline = timeLimitMillis > 0 ? System.nanoTime() + timeLimitMillis * 1000000 : Long.MAX_VALUE;
+		stopped = false;
+		nodesSearched = 0;
+		bestMove = -1;
+
+		Board position = new Board(board);
+		int player = position.getCurrentPlayer();
+		int storeMargin = position.getStoreCount(player) - position.getStoreCount(1 - player);
+		if (position.isGameOver()) {
+			return storeMargin + getMargin(position);
+		}
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int bestMargin = Integer.MIN_VALUE;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (position.getSeeds(pit) == 0) {
+				continue;
+			}
+			int margin = getMoveMargin(position, pit);
+			if (stopped) {
+				bestMove = -1;
+				return UNSOLVED;
+			}
+			if (margin > bestMargin) {
+				bestMargin = margin;
+				bestMove = pit;
+			}
+		}
+		return storeMargin + bestMargin;
+	}
+
+	/**
+	 * Returns the number of seeds the player to move will gain over the opponent
+	 * from here on, or an unused value once the solve has stopped.
+	 */
+	private int getMargin(Board board) {
+		int player = board.getCurrentPlayer();
+		if (board.isGameOver()) {
+			return board.getSideCount(player) - board.getSideCount(1 - player);
+		}
+		nodesSearched++;
+		if ((nodesSearched & TIME_CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() >= deadline)
+				|| margins.size() >= maxEntries) {
+			stopped = true;
+		}
+		if (stopped) {
+			return 0;
+		}
+
+		long key = getKey(board);
+		Integer known = margins.get(key);
+		if (known != null) {
+			return known;
+		}
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int best = Integer.MIN_VALUE;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (board.getSeeds(pit) != 0) {
+				best = Math.max(best, getMoveMargin(board, pit));
+			}
+		}
+		// A position is only remembered once every move has been solved
+		if (!stopped) {
+			margins.put(key, best);
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the number of seeds the player to move will gain over the opponent
+	 * by playing the given move and then playing perfectly.
+	 */
+	private int getMoveMargin(Board board, int pit) {
+		int player = board.getCurrentPlayer();
+		int storeMargin = board.getStoreCount(player) - board.getStoreCount(1 - player);
+		long undo = board.makeMove(pit);
+		int gained = board.getStoreCount(player) - board.getStoreCount(1 - player) - storeMargin;
+		int childMargin = getMargin(board);
+		int margin = gained + (board.getCurrentPlayer() == player ? childMargin : -childMargin);
+		board.unmakeMove(undo);
+		return margin;
+	}
+
+	/**
+	 * Returns the packed key of a position's pits and player to move, leaving out
+	 * the stores.
+	 */
+	private static long getKey(Board board) {
+		int playerOneStore = board.getSeeds(Board.PLAYER_ONE_STORE);
+		int playerTwoStore = board.getSeeds(Board.PLAYER_TWO_STORE);
+		board.setSeeds(Board.PLAYER_ONE_STORE, 0);
+		board.setSeeds(Board.PLAYER_TWO_STORE, 0);
+		long key = PackedBoard.pack(board);
+		board.setSeeds(Board.PLAYER_ONE_STORE, playerOneStore);
+		board.setSeeds(Board.PLAYER_TWO_STORE, playerTwoStore);
+		return key;
+	}
+
+	/**
+	 * Asks a solve running on another thread to give up at its next clock check,
+	 * as if its time had run out. The request stays in place until
+	 * {@link #clearStop()} is called.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Withdraws a request to stop, so that the next solve runs normally.
+	 */
+	public void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * Returns the best move found by the last solve, the one that keeps the
+	 * largest final margin.
+	 *
+	 * @return the index of the pit to be moved, or -1 if the last solve gave up or
+	 *         the game was over
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Returns the number of positions searched by the last solve.
+	 *
+	 * @return the number of nodes searched
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the number of positions whose result is remembered.
+	 *
+	 * @return the number of entries in the map
+	 */
+	public int getEntryCount() {
+		return margins.size();
+	}
+
+	/**
+	 * Forgets every remembered result.
+	 */
+	public void clear() {
+		margins.clear();
+	}
+}
@@ -0,0 +1,1045 @@
+package mancala;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This program contains the unit tests for the computer opponent's search
+ * engines. Running this program will output text confirming the success of all
+ * tests, or specify which test fails if any of them are unsuccessful.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+
+public class EngineTest {
+
+	/**
+	 * Scores a position by trying every line of play to the given depth, without
+	 * any pruning. Used to check the scores found by the alpha-beta search.
+	 */
+	private static int minimax(Board board, int depth) {
+		if (board.isGameOver()) {
+			return Evaluation.finalScore(board);
+		}
+		if (depth == 0) {
+			return Evaluation.evaluate(board);
+		}
+		int player = board.getCurrentPlayer();
+		int best = -Evaluation.MAX_SCORE;
+		for (int pit = 0; pit < Board.SLOT_COUNT; pit++) {
+			if (board.isLegal(pit)) {
+				long undo = board.makeMove(pit);
+				int score = minimax(board, depth - 1);
+				if (board.getCurrentPlayer() != player) {
+					score = -score;
+				}
+				board.unmakeMove(undo);
+				best = Math.max(best, score);
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Plays a number of random moves from the starting position.
+	 */
+	private static Board randomPosition(Random rand, int moveCount) {
+		Board board = new Board();
+		board.reset(4);
+		for (int i = 0; i < moveCount && !board.isGameOver(); i++) {
+			int pit;
+			do {
+				pit = rand.nextInt(Board.SLOT_COUNT);
+			} while (!board.isLegal(pit));
+			board.makeMove(pit);
+		}
+		return board;
+	}
+
+	/**
+	 * Tests that the alpha-beta search finds the same score as a full minimax
+	 * search, and that it leaves the board it is given unchanged.
+	 * 
+	 * @return boolean, true if the scores match, false otherwise
+	 */
+	private static boolean testAlphaBetaMatchesMinimax() {
+		Random rand = new Random(9);
+		AlphaBetaEngine engine = new AlphaBetaEngine(5, 0, null);
+		for (int trial = 0; trial < 200; trial++) {
+			Board board = randomPosition(rand, rand.nextInt(30));
+			if (board.isGameOver()) {
+				continue;
+			}
+			long key = PackedBoard.pack(board);
+			int move = engine.chooseMove(board);
+			if (PackedBoard.pack(board) != key) {
+				System.out.println("FAIL: The search engine changed the board it was given");
+				return false;
+			}
+			if (!board.isLegal(move)) {
+				System.out.println("FAIL: The search engine chose an illegal move");
+				return false;
+			}
+			if (engine.getBestScore() != minimax(board, 5)) {
+				System.out.println("FAIL: The alpha-beta score does not match the minimax score");
+				return false;
+			}
+
+			// The chosen move must be worth the score that was reported
+			Board copy = new Board(board);
+			copy.makeMove(move);
+			int moveScore = minimax(copy, 4);
+			if (copy.getCurrentPlayer() != board.getCurrentPlayer()) {
+				moveScore = -moveScore;
+			}
+			if (moveScore != engine.getBestScore()) {
+				System.out.println("FAIL: The chosen move is not worth the reported score");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the alpha-beta search takes an extra turn and a capture when they
+	 * are clearly the best moves, and that it counts the positions it searched.
+	 * 
+	 * @return boolean, true if the expected moves were chosen, false otherwise
+	 */
+	private static boolean testAlphaBetaTactics() {
+		AlphaBetaEngine engine = new AlphaBetaEngine(4);
+
+		// Player 2's pit 12 holds one seed, which lands in the store. Moving pit 10
+		// first would fill pit 12 and lose the extra turn
+		Board board = new Board();
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			board.setSeeds(slot, 0);
+		}
+		board.setSeeds(0, 2);
+		board.setSeeds(10, 5);
+		board.setSeeds(12, 1);
+		board.setCurrentPlayer(1);
+		if (engine.chooseMove(board) != 12) {
+			System.out.println("FAIL: The search engine did not take the extra turn");
+			return false;
+		}
+		if (engine.getNodesSearched() <= 1) {
+			System.out.println("FAIL: The search engine did not count the positions it searched");
+			return false;
+		}
+
+		// Player 1's pit 0 holds one seed, which lands in empty pit 1 across from 9 marbles
+		board.setSeeds(10, 0);
+		board.setSeeds(12, 0);
+		board.setSeeds(7, 2);
+		board.setSeeds(0, 1);
+		board.setSeeds(3, 1);
+		board.setSeeds(11, 9);
+		board.setCurrentPlayer(0);
+		if (engine.chooseMove(board) != 0) {
+			System.out.println("FAIL: The search engine did not take the capture");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that a time-limited search returns a completed depth close to its
+	 * deadline, that it stops early once the game is solved, and that a search
+	 * stops when another thread asks it to.
+	 * 
+	 * @return boolean, true if the time limit was kept, false otherwise
+	 */
+	private static boolean testTimeLimit() {
+		AlphaBetaEngine engine = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 50);
+		Board board = new Board();
+		board.reset(4);
+		int move = engine.chooseMove(board);
+		if (!board.isLegal(move) || engine.getCompletedDepth() < 1) {
+			System.out.println("FAIL: A time-limited search did not complete a depth");
+			return false;
+		}
+		if (engine.getCompletedDepth() == AlphaBetaEngine.MAX_PLY) {
+			System.out.println("FAIL: The opening position was searched to the end of the game in 50 ms");
+			return false;
+		}
+		if (engine.getLastSearchNanos() > 500 * 1000000L) {
+			System.out.println("FAIL: A 50 ms search took more than 500 ms");
+			return false;
+		}
+		if (engine.getLastOverrunNanos() > engine.getMaxOverrunNanos()) {
+			System.out.println("FAIL: The largest overrun is smaller than the last overrun");
+			return false;
+		}
+
+		// With four seeds left the whole game is searched long before the deadline
+		engine.setTimeLimit(10000);
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			board.setSeeds(slot, 0);
+		}
+		board.setSeeds(2, 1);
+		board.setSeeds(4, 1);
+		board.setSeeds(8, 2);
+		engine.chooseMove(board);
+		if (engine.getCompletedDepth() >= AlphaBetaEngine.MAX_PLY || engine.getLastSearchNanos() > 1000 * 1000000L) {
+			System.out.println("FAIL: The search did not stop once the game was solved");
+			return false;
+		}
+
+		// A search with no limit returns soon after another thread asks it to stop
+		board.reset(4);
+		SearchEngine unlimited = new EndgameEngine(new LazySmpEngine(2, 0, 1), 0);
+		int[] stoppedMove = { -1 };
+		Thread searchThread = new Thread(() -> stoppedMove[0] = unlimited.chooseMove(board));
+		try {
+			searchThread.start();
+			Thread.sleep(100);
+			unlimited.requestStop();
+			searchThread.join(2000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		long startTime = System.nanoTime();
+		int stoppedAgain = unlimited.chooseMove(board);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		unlimited.clearStop();
+		unlimited.shutdown();
+		if (searchThread.isAlive() || !board.isLegal(stoppedMove[0]) || !board.isLegal(stoppedAgain)
+				|| elapsedMillis > 500) {
+			System.out.println("FAIL: A search did not stop when asked to");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests the Zobrist hash keys and the storing and replacement of entries in
+	 * the transposition table.
+	 * 
+	 * @return boolean, true if the table behaved correctly, false otherwise
+	 */
+	private static boolean testTranspositionTable() {
+		Board board = new Board();
+		board.reset(4);
+		Board copy = new Board(board);
+		if (ZobristHash.hash(board) != ZobristHash.hash(copy)) {
+			System.out.println("FAIL: Equal positions have different hash keys");
+			return false;
+		}
+		copy.switchPlayer();
+		if (ZobristHash.hash(board) == ZobristHash.hash(copy)) {
+			System.out.println("FAIL: The player to move does not change the hash key");
+			return false;
+		}
+
+		TranspositionTable table = new TranspositionTable(1);
+		if (table.getCapacity() * 16L > 1024 * 1024 || Integer.bitCount(table.getCapacity()) != 1) {
+			System.out.println("FAIL: The table is not a power of two within its memory limit");
+			return false;
+		}
+		long key = ZobristHash.hash(board);
+		if (table.probe(key) != TranspositionTable.MISS) {
+			System.out.println("FAIL: An empty table found a position");
+			return false;
+		}
+		table.store(key, 6, TranspositionTable.LOWER_BOUND, -25, 3);
+		long entry = table.probe(key);
+		if (entry == TranspositionTable.MISS || TranspositionTable.getDepth(entry) != 6
+				|| TranspositionTable.getBound(entry) != TranspositionTable.LOWER_BOUND
+				|| TranspositionTable.getScore(entry) != -25 || TranspositionTable.getMove(entry) != 3) {
+			System.out.println("FAIL: A stored entry was not read back correctly");
+			return false;
+		}
+
+		// A shallower result for another position in the same bucket must not
+		// replace the deep entry. Flipping the same bit in both halves of the key
+		// keeps its bucket
+		long otherKey = key ^ (1L << 40 | 1L << 8);
+		table.store(otherKey, 2, TranspositionTable.EXACT, 7, 1);
+		if (table.probe(key) == TranspositionTable.MISS || table.probe(otherKey) == TranspositionTable.MISS) {
+			System.out.println("FAIL: A shallow entry replaced a deeper one");
+			return false;
+		}
+
+		// A search with the table must find the same exact scores in solved endgames
+		Random rand = new Random(17);
+		AlphaBetaEngine withTable = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, new TranspositionTable(1));
+		AlphaBetaEngine withoutTable = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, null);
+		for (int trial = 0; trial < 100; trial++) {
+			Board endgame = new Board();
+			for (int i = 0; i < 10; i++) {
+				int slot = rand.nextInt(Board.SLOT_COUNT);
+				endgame.setSeeds(slot, endgame.getSeeds(slot) + 1);
+			}
+			endgame.setCurrentPlayer(rand.nextInt(2));
+			if (endgame.isGameOver()) {
+				continue;
+			}
+			withTable.chooseMove(endgame);
+			withoutTable.chooseMove(endgame);
+			if (withTable.getBestScore() != withoutTable.getBestScore()) {
+				System.out.println("FAIL: The transposition table changed the score of a solved endgame");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the parallel search chooses the same move, with the same score,
+	 * as the serial search at a fixed depth.
+	 * 
+	 * @return boolean, true if the two searches agree, false otherwise
+	 */
+	private static boolean testParallelMatchesSerial() {
+		Random rand = new Random(21);
+		ParallelSearchEngine parallel = new ParallelSearchEngine(4, 8, 0);
+		AlphaBetaEngine serial = new AlphaBetaEngine(8, 0, null);
+		try {
+			for (int trial = 0; trial < 40; trial++) {
+				Board board = randomPosition(rand, rand.nextInt(30));
+				if (board.isGameOver()) {
+					continue;
+				}
+				long key = PackedBoard.pack(board);
+				int parallelMove = parallel.chooseMove(board);
+				int serialMove = serial.chooseMove(board);
+				if (PackedBoard.pack(board) != key) {
+					System.out.println("FAIL: The parallel search changed the board it was given");
+					return false;
+				}
+				if (parallelMove != serialMove || parallel.getBestScore() != serial.getBestScore()) {
+					System.out.println("FAIL: The parallel search did not choose the same move as the serial search");
+					return false;
+				}
+			}
+
+			// A stopped search returns at once with a legal move, until the stop is cleared
+			Board board = new Board();
+			board.reset(4);
+			parallel.setTimeLimit(10000);
+			parallel.requestStop();
+			long startTime = System.nanoTime();
+			int stoppedMove = parallel.chooseMove(board);
+			long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+			parallel.clearStop();
+			if (parallel.getTimeLimit() != 10000 || !board.isLegal(stoppedMove) || elapsedMillis > 500
+					|| parallel.getCompletedDepth() != 0) {
+				System.out.println("FAIL: The parallel search did not stop when asked to");
+				return false;
+			}
+			parallel.chooseMove(board);
+			if (parallel.getCompletedDepth() != 8) {
+				System.out.println("FAIL: The parallel search stayed stopped after the stop was cleared");
+				return false;
+			}
+		} finally {
+			parallel.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Plays a whole game between two engines, starting from the standard position.
+	 * 
+	 * @return the number of marbles Player 1 finishes ahead by
+	 */
+	private static int playGame(SearchEngine playerOne, SearchEngine playerTwo) {
+		Board board = new Board();
+		board.reset(4);
+		while (!board.isGameOver()) {
+			SearchEngine engine = board.getCurrentPlayer() == 0 ? playerOne : playerTwo;
+			int pit = engine.chooseMove(board);
+			if (!board.isLegal(pit)) {
+				throw new IllegalStateException("Illegal move " + pit);
+			}
+			board.makeMove(pit);
+		}
+		board.sweep();
+		return board.getStoreCount(0) - board.getStoreCount(1);
+	}
+
+	/**
+	 * Tests that the Lazy SMP search beats the one-ply heuristic from both sides
+	 * of the board.
+	 * 
+	 * @return boolean, true if the Lazy SMP search won both games, false otherwise
+	 */
+	private static boolean testLazySmpBeatsHeuristic() {
+		LazySmpEngine lazySmp = new LazySmpEngine(3, 20, 4);
+		HeuristicEngine heuristic = new HeuristicEngine(new Random(11));
+		try {
+			if (playGame(lazySmp, heuristic) <= 0 || playGame(heuristic, lazySmp) >= 0) {
+				System.out.println("FAIL: The Lazy SMP search did not beat the heuristic opponent");
+				return false;
+			}
+			if (lazySmp.getNodesSearched() <= 1 || lazySmp.getThreadCount() != 3) {
+				System.out.println("FAIL: The Lazy SMP search did not count the positions of all its threads");
+				return false;
+			}
+		} finally {
+			lazySmp.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that pondering searches the replies to a position in the background,
+	 * leaves the position unchanged, and stops when a move is asked for.
+	 * 
+	 * @return boolean, true if pondering behaved correctly, false otherwise
+	 */
+	private static boolean testPondering() {
+		LazySmpEngine engine = new LazySmpEngine(1, 50, 4);
+		try {
+			Board board = randomPosition(new Random(41), 6);
+			long key = PackedBoard.pack(board);
+			engine.ponder(board);
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			engine.stopPondering();
+			long ponderNodes = engine.getPonderNodes();
+			if (ponderNodes == 0 || PackedBoard.pack(board) != key) {
+				System.out.println("FAIL: Pondering did not search the replies on a copy of the board");
+				return false;
+			}
+
+			int reply = 0;
+			while (!board.isLegal(reply)) {
+				reply++;
+			}
+			engine.ponder(board);
+			board.makeMove(reply);
+			if (board.isGameOver() || !board.isLegal(engine.chooseMove(board))
+					|| engine.getPonderNodes() == 0) {
+				System.out.println("FAIL: The search after pondering did not choose a legal move");
+				return false;
+			}
+			long stoppedNodes = engine.getPonderNodes();
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (engine.getPonderNodes() != stoppedNodes) {
+				System.out.println("FAIL: Pondering did not stop when a move was asked for");
+				return false;
+			}
+		} finally {
+			engine.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the Monte Carlo search takes a large capture, reuses its tree on
+	 * the next move, and chooses legal moves with several threads.
+	 * 
+	 * @return boolean, true if the Monte Carlo search behaved correctly, false
+	 *         otherwise
+	 */
+	private static boolean testMonteCarlo() {
+		MonteCarloEngine engine = new MonteCarloEngine(1, 0, 20000, 1 << 16, 7);
+
+		// Player 1's pit 0 holds one seed, which lands in empty pit 1 across from 9 marbles
+		Board board = new Board();
+		board.setSeeds(0, 1);
+		board.setSeeds(3, 1);
+		board.setSeeds(7, 2);
+		board.setSeeds(11, 9);
+		long key = PackedBoard.pack(board);
+		if (engine.chooseMove(board) != 0) {
+			System.out.println("FAIL: The Monte Carlo search did not take the capture");
+			return false;
+		}
+		if (PackedBoard.pack(board) != key || engine.getNodesSearched() != 20000) {
+			System.out.println("FAIL: The Monte Carlo search did not play out every game on a copy of the board");
+			return false;
+		}
+
+		// After its own move and a reply, the tree below the new position is kept
+		engine.clearTree();
+		board.reset(4);
+		board.makeMove(engine.chooseMove(board));
+		while (board.getCurrentPlayer() == 0) {
+			board.makeMove(engine.chooseMove(board));
+		}
+		int reply = 7;
+		while (!board.isLegal(reply)) {
+			reply++;
+		}
+		board.makeMove(reply);
+		if (board.getCurrentPlayer() == 0 && !board.isGameOver()) {
+			engine.chooseMove(board);
+			if (engine.getReusedVisits() == 0 || engine.getTreeSize() <= 1) {
+				System.out.println("FAIL: The Monte Carlo search did not reuse its tree");
+				return false;
+			}
+		}
+		engine.shutdown();
+
+		MonteCarloEngine parallel = new MonteCarloEngine(3, 20, 0, 1 << 16, 7);
+		try {
+			Random rand = new Random(2);
+			for (int trial = 0; trial < 10; trial++) {
+				Board position = randomPosition(rand, rand.nextInt(30));
+				if (!position.isGameOver() && !position.isLegal(parallel.chooseMove(position))) {
+					System.out.println("FAIL: The parallel Monte Carlo search chose an illegal move");
+					return false;
+				}
+			}
+
+			// A stopped search returns at once, well within its time limit
+			parallel.setTimeLimit(10000);
+			parallel.requestStop();
+			board.reset(4);
+			long startTime = System.nanoTime();
+			int stoppedMove = parallel.chooseMove(board);
+			long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+			parallel.clearStop();
+			if (parallel.getTimeLimit() != 10000 || !board.isLegal(stoppedMove) || elapsedMillis > 500) {
+				System.out.println("FAIL: The Monte Carlo search did not stop when asked to");
+				return false;
+			}
+		} finally {
+			parallel.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the tablebase gives every position its own index, survives being
+	 * written and read back, and agrees with a full search of the endgame.
+	 * 
+	 * @return boolean, true if the tablebase is correct, false otherwise
+	 */
+	private static boolean testTablebase() {
+		Tablebase generated = TablebaseGenerator.generate(6);
+		Tablebase tablebase;
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			generated.write(out);
+			if (out.size() != Tablebase.HEADER_BYTES + Tablebase.getIndexCount(6)) {
+				System.out.println("FAIL: The tablebase file is not one byte per position");
+				return false;
+			}
+			tablebase = Tablebase.read(new ByteArrayInputStream(out.toByteArray()));
+		} catch (IOException e) {
+			System.out.println("FAIL: The tablebase could not be written and read back");
+			return false;
+		}
+
+		// A tablebase mapped from a file must give the same margins as one on the heap
+		try {
+			File file = File.createTempFile("mancala", ".tb");
+			file.deleteOnExit();
+			try (OutputStream out = new FileOutputStream(file)) {
+				generated.write(out);
+			}
+			Tablebase mapped = Tablebase.open(file);
+			Random rand = new Random(19);
+			Board board = new Board();
+			for (int trial = 0; trial < 1000; trial++) {
+				for (int i = 0; i < 12; i++) {
+					board.setSeeds(Tablebase.getPit(i), 0);
+				}
+				for (int i = rand.nextInt(7); i > 0; i--) {
+					int slot = Tablebase.getPit(rand.nextInt(12));
+					board.setSeeds(slot, board.getSeeds(slot) + 1);
+				}
+				board.setCurrentPlayer(rand.nextInt(2));
+				if (mapped.getMargin(board) != generated.getMargin(board)) {
+					System.out.println("FAIL: The mapped tablebase does not match the generated one");
+					return false;
+				}
+			}
+		} catch (IOException e) {
+			System.out.println("FAIL: The tablebase file could not be mapped");
+			return false;
+		}
+
+		// Every way of putting up to 3 seeds in the pits has its own index
+		Set<Long> indices = new HashSet<>();
+		Board board = new Board();
+		for (int first = 0; first < 13; first++) {
+			for (int second = first; second < 13; second++) {
+				for (int third = second; third < 13; third++) {
+					for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+						board.setSeeds(slot, 0);
+					}
+					for (int pit : new int[] { first, second, third }) {
+						if (pit < 12) {
+							int slot = Tablebase.getPit(pit);
+							board.setSeeds(slot, board.getSeeds(slot) + 1);
+						}
+					}
+					long index = Tablebase.getIndex(board);
+					if (index < 0 || index >= Tablebase.getIndexCount(3) || !indices.add(index)) {
+						System.out.println("FAIL: Two positions share a tablebase index");
+						return false;
+					}
+				}
+			}
+		}
+
+		Random rand = new Random(13);
+		AlphaBetaEngine search = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, null);
+		TablebaseEngine engine = new TablebaseEngine(tablebase, search);
+		for (int trial = 0; trial < 300; trial++) {
+			for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+				board.setSeeds(slot, Board.isStore(slot) ? rand.nextInt(20) : 0);
+			}
+			for (int i = rand.nextInt(7); i > 0; i--) {
+				int slot = Tablebase.getPit(rand.nextInt(12));
+				board.setSeeds(slot, board.getSeeds(slot) + 1);
+			}
+			board.setCurrentPlayer(rand.nextInt(2));
+			if (board.isGameOver()) {
+				continue;
+			}
+			int move = engine.chooseMove(board);
+			search.chooseMove(board);
+			if (!engine.isLastMoveFromTablebase()
+					|| tablebase.getFinalMargin(board) * Evaluation.SCORE_SCALE != search.getBestScore()) {
+				System.out.println("FAIL: The tablebase does not agree with a full search of the endgame");
+				return false;
+			}
+
+			// The tablebase move must keep the best margin
+			Board child = new Board(board);
+			child.makeMove(move);
+			int margin = tablebase.getFinalMargin(child);
+			if (child.getCurrentPlayer() != board.getCurrentPlayer()) {
+				margin = -margin;
+			}
+			if (margin != tablebase.getFinalMargin(board)) {
+				System.out.println("FAIL: The tablebase move does not keep the best margin");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the opening book answers every position it was built from with a
+	 * legal move, and that a build carries on from the results of earlier ones.
+	 * 
+	 * @return boolean, true if the opening book is correct, false otherwise
+	 */
+	private static boolean testOpeningBook() {
+		try {
+			File directory = Files.createTempDirectory("mancala").toFile();
+			File bookFile = new File(directory, "test.book");
+			File progressFile = new File(bookFile.getPath() + OpeningBookBuilder.PROGRESS_SUFFIX);
+			bookFile.deleteOnExit();
+			progressFile.deleteOnExit();
+			directory.deleteOnExit();
+
+			OpeningBookBuilder builder = new OpeningBookBuilder(1, 6, 2);
+			builder.build(bookFile);
+			int firstCount = builder.getPositionsSearched();
+			builder = new OpeningBookBuilder(2, 6, 2);
+			OpeningBook book = builder.build(bookFile);
+			if (firstCount != OpeningBookBuilder.listPositions(1).size() || builder.getPositionsReused() != firstCount
+					|| builder.getPositionsSearched() != OpeningBookBuilder.listPositions(2).size() - firstCount) {
+				System.out.println("FAIL: The book build did not reuse the positions already searched");
+				return false;
+			}
+
+			// A record cut off part way must be dropped, and the rest kept
+			try (OutputStream out = new FileOutputStream(progressFile, true)) {
+				out.write(new byte[5]);
+			}
+			builder.build(bookFile);
+			if (builder.getPositionsSearched() != 0) {
+				System.out.println("FAIL: The book build did not recover from a half written record");
+				return false;
+			}
+
+			Board board = new Board();
+			for (long key : OpeningBookBuilder.listPositions(2)) {
+				PackedBoard.unpack(key, board);
+				long entry = book.lookup(board);
+				if (entry == OpeningBook.MISS || !board.isLegal(OpeningBook.getMove(entry))
+						|| OpeningBook.getDepth(entry) != 6) {
+					System.out.println("FAIL: The opening book does not answer a position it was built from");
+					return false;
+				}
+			}
+
+			// Positions outside the book are left to the fallback engine
+			OpeningBookEngine engine = new OpeningBookEngine(book, new HeuristicEngine(new Random(7)));
+			board.reset(4);
+			if (engine.chooseMove(board) != book.getMove(board) || !engine.isLastMoveFromBook()) {
+				System.out.println("FAIL: The book engine did not play the book move");
+				return false;
+			}
+			board.setSeeds(0, 0);
+			board.setSeeds(Board.PLAYER_ONE_STORE, 4);
+			if (book.lookup(board) != OpeningBook.MISS || !board.isLegal(engine.chooseMove(board))
+					|| engine.isLastMoveFromBook()) {
+				System.out.println("FAIL: The book engine did not search a position outside the book");
+				return false;
+			}
+		} catch (IOException e) {
+			System.out.println("FAIL: The opening book could not be built");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the proof-number solver agrees with the tablebase on whether the
+	 * player to move finishes ahead by a margin, and that its winning moves keep
+	 * the win.
+	 * 
+	 * @return boolean, true if every answer was right, false otherwise
+	 */
+	private static boolean testProofNumberSolver() {
+		Tablebase tablebase = TablebaseGenerator.generate(8);
+		ProofNumberSolver solver = new ProofNumberSolver(1);
+		Random rand = new Random(23);
+		Board board = new Board();
+		for (int trial = 0; trial < 500; trial++) {
+			for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+				board.setSeeds(slot, Board.isStore(slot) ? rand.nextInt(10) : 0);
+			}
+			for (int i = rand.nextInt(9); i > 0; i--) {
+				int slot = Tablebase.getPit(rand.nextInt(12));
+				board.setSeeds(slot, board.getSeeds(slot) + 1);
+			}
+			board.setCurrentPlayer(rand.nextInt(2));
+			if (board.isGameOver()) {
+				continue;
+			}
+			int margin = rand.nextInt(9) - 4;
+			int result = solver.solve(board, margin, 0);
+			boolean ahead = tablebase.getFinalMargin(board) > margin;
+			if (result != (ahead ? ProofNumberSolver.PROVEN : ProofNumberSolver.DISPROVEN)
+					|| solver.getProofSize() < 1) {
+				System.out.println("FAIL: The proof-number solver does not agree with the tablebase");
+				return false;
+			}
+			if (ahead) {
+				Board child = new Board(board);
+				child.makeMove(solver.getBestMove());
+				int childMargin = tablebase.getFinalMargin(child);
+				if (child.getCurrentPlayer() != board.getCurrentPlayer()) {
+					childMargin = -childMargin;
+				}
+				if (childMargin <= margin) {
+					System.out.println("FAIL: The proof-number solver's move does not keep the margin");
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the endgame solver finds the same final margins as the tablebase,
+	 * and that the endgame engine only solves positions below its threshold.
+	 * 
+	 * @return boolean, true if the endgame is solved correctly, false otherwise
+	 */
+	private static boolean testEndgameSolver() {
+		Tablebase tablebase = TablebaseGenerator.generate(8);
+		EndgameSolver solver = new EndgameSolver();
+		EndgameEngine engine = new EndgameEngine(solver, new HeuristicEngine(new Random(29)), 9, 0);
+		Random rand = new Random(31);
+		Board board = new Board();
+		for (int trial = 0; trial < 500; trial++) {
+			for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+				board.setSeeds(slot, Board.isStore(slot) ? rand.nextInt(10) : 0);
+			}
+			for (int i = rand.nextInt(9); i > 0; i--) {
+				int slot = Tablebase.getPit(rand.nextInt(12));
+				board.setSeeds(slot, board.getSeeds(slot) + 1);
+			}
+			board.setCurrentPlayer(rand.nextInt(2));
+			if (board.isGameOver()) {
+				continue;
+			}
+			if (solver.solve(board, 0) != tablebase.getFinalMargin(board)) {
+				System.out.println("FAIL: The endgame solver does not agree with the tablebase");
+				return false;
+			}
+			int move = engine.chooseMove(board);
+			Board child = new Board(board);
+			child.makeMove(move);
+			int margin = tablebase.getFinalMargin(child);
+			if (child.getCurrentPlayer() != board.getCurrentPlayer()) {
+				margin = -margin;
+			}
+			if (!engine.isLastMoveSolved() || margin != tablebase.getFinalMargin(board)) {
+				System.out.println("FAIL: The endgame engine's move does not keep the best margin");
+				return false;
+			}
+		}
+
+		// Positions with too many seeds, or that cannot be solved in time, are searched
+		board.reset(4);
+		if (!board.isLegal(engine.chooseMove(board)) || engine.isLastMoveSolved()) {
+			System.out.println("FAIL: The endgame engine solved a position above its threshold");
+			return false;
+		}
+		EndgameSolver stoppedSolver = new EndgameSolver();
+		stoppedSolver.requestStop();
+		if (stoppedSolver.solve(board, 0) != EndgameSolver.UNSOLVED) {
+			System.out.println("FAIL: The endgame solver did not give up when asked to stop");
+			return false;
+		}
+		EndgameEngine limited = new EndgameEngine(new EndgameSolver(10), new HeuristicEngine(new Random(37)), 49, 0);
+		if (!board.isLegal(limited.chooseMove(board)) || limited.isLastMoveSolved()) {
+			System.out.println("FAIL: The endgame engine did not give up when its map was full");
+			return false;
+		}
+
+		// A solve that gives up leaves the search only the rest of the move's time
+		AlphaBetaEngine search = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 300, new TranspositionTable(1));
+		EndgameEngine budgeted = new EndgameEngine(new EndgameSolver(), search, 49, 150);
+		long startTime = System.nanoTime();
+		budgeted.chooseMove(board);
+		long elapsedMillis = (System.nanoTime() - startTime) / 1000000;
+		if (budgeted.isLastMoveSolved() || elapsedMillis > 400 || search.getTimeLimit() != 300) {
+			System.out.println("FAIL: The endgame engine took " + elapsedMillis + " ms of a 300 ms budget");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the search keeps to its node limit, that noise makes it vary its
+	 * moves, and that every difficulty level chooses legal moves.
+	 * 
+	 * @return boolean, true if the budgets are kept, false otherwise
+	 */
+	private static boolean testDifficulty() {
+		Board board = new Board();
+		board.reset(4);
+		AlphaBetaEngine engine = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, new TranspositionTable(1));
+		engine.setNodeLimit(5000);
+		engine.chooseMove(board);
+		if (engine.getNodesSearched() > 5000 + 1024 || engine.getCompletedDepth() < 1) {
+			System.out.println("FAIL: The search did not keep to its node limit");
+			return false;
+		}
+
+		// With more noise than any difference between moves, the moves must vary
+		engine = new AlphaBetaEngine(2, 0, null);
+		engine.setNoise(100 * Evaluation.SCORE_SCALE, new Random(43));
+		Set<Integer> moves = new HashSet<>();
+		for (int trial = 0; trial < 20; trial++) {
+			moves.add(engine.chooseMove(board));
+		}
+		engine.setNoise(0, null);
+		int quietMove = engine.chooseMove(board);
+		if (moves.size() < 2 || engine.chooseMove(board) != quietMove) {
+			System.out.println("FAIL: Noise did not change the moves chosen");
+			return false;
+		}
+
+		// A position with few seeds left is searched to the end quickly at every level
+		board = new Board();
+		board.setSeeds(2, 2);
+		board.setSeeds(4, 1);
+		board.setSeeds(8, 3);
+		board.setSeeds(12, 1);
+		for (Difficulty difficulty : Difficulty.values()) {
+			SearchEngine levelEngine = difficulty.createSearchEngine();
+			try {
+				if (!board.isLegal(levelEngine.chooseMove(board))
+						|| levelEngine.getNodesSearched() > difficulty.getNodeLimit() * 4 + 1024) {
+					System.out.println("FAIL: The " + difficulty + " level did not choose a legal move in budget");
+					return false;
+				}
+			} finally {
+				levelEngine.shutdown();
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that a search publishes statistics that agree with the engine's own
+	 * counters and a principal variation that can be played, and that the
+	 * monitor can be read through JMX.
+	 * 
+	 * @return boolean, true if the statistics are right, false otherwise
+	 */
+	private static boolean testSearchStats() {
+		Board board = new Board();
+		board.reset(4);
+		AlphaBetaEngine engine = new AlphaBetaEngine(6, 0, new TranspositionTable(1));
+		int move = engine.chooseMove(board);
+		SearchStats stats = engine.getLastStats();
+		if (stats == null || stats.getNodesSearched() != engine.getNodesSearched()
+				|| stats.getTableHits() != engine.getTableHits() || stats.getDepth() != 6
+				|| stats.getScore() != engine.getBestScore() || stats.getCutoffs() == 0
+				|| stats.getBranchingFactor() <= 1 || stats.getTimeNanos() <= 0) {
+			System.out.println("FAIL: The search statistics did not match the search: " + stats);
+			return false;
+		}
+		int[] line = stats.getPrincipalVariation();
+		Board position = new Board(board);
+		for (int pit : line) {
+			if (!position.isLegal(pit)) {
+				System.out.println("FAIL: The principal variation could not be played: " + stats);
+				return false;
+			}
+			position.makeMove(pit);
+		}
+		if (line.length < 2 || line.length > 6 || line[0] != move) {
+			System.out.println("FAIL: The principal variation did not start with the move chosen: " + stats);
+			return false;
+		}
+
+		LazySmpEngine smp = new LazySmpEngine(2, 200, 1);
+		try {
+			smp.chooseMove(board);
+			stats = smp.getLastStats();
+			if (stats == null || stats.getNodesSearched() != smp.getNodesSearched()
+					|| stats.getDepth() != smp.getCompletedDepth()) {
+				System.out.println("FAIL: The Lazy SMP statistics did not add up the threads: " + stats);
+				return false;
+			}
+		} finally {
+			smp.shutdown();
+		}
+
+		SearchMonitor monitor = SearchMonitor.getInstance();
+		monitor.reset();
+		monitor.publish(engine.getLastStats());
+		monitor.publish(null);
+		monitor.publish(stats);
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(SearchMonitor.OBJECT_NAME);
+			long moveCount = (Long) server.getAttribute(name, "MoveCount");
+			long lastNodes = (Long) server.getAttribute(name, "LastNodesSearched");
+			long totalNodes = (Long) server.getAttribute(name, "TotalNodesSearched");
+			if (moveCount != 2 || lastNodes != stats.getNodesSearched()
+					|| totalNodes != stats.getNodesSearched() + engine.getNodesSearched()) {
+				System.out.println("FAIL: The search monitor did not collect the statistics published");
+				return false;
+			}
+		} catch (JMException e) {
+			System.out.println("FAIL: The search monitor could not be read through JMX: " + e);
+			return false;
+		}
+		monitor.reset();
+		return true;
+	}
+
+	/**
+	 * Tests that analysing a position scores every legal move as a separate search
+	 * of the move would, best first, and that analysing the same position again
+	 * is answered from the transposition table.
+	 * 
+	 * @return boolean, true if the analysis is right, false otherwise
+	 */
+	private static boolean testMoveAnalysis() {
+		Random rand = new Random(47);
+		for (int trial = 0; trial < 60; trial++) {
+			Board board = randomPosition(rand, rand.nextInt(30));
+			if (board.isGameOver()) {
+				continue;
+			}
+			int depth = 2 + rand.nextInt(4);
+			MoveAnalysis[] analysis = new AlphaBetaEngine(depth, 0, new TranspositionTable(1)).analyze(board);
+			Set<Integer> pits = new HashSet<>();
+			for (int i = 0; i < analysis.length; i++) {
+				MoveAnalysis move = analysis[i];
+				pits.add(move.getPit());
+				Board child = new Board(board);
+				int player = child.getCurrentPlayer();
+				child.makeMove(move.getPit());
+				int score;
+				if (child.isGameOver()) {
+					score = Evaluation.finalScore(child);
+				} else {
+					AlphaBetaEngine reference = new AlphaBetaEngine(depth - 1, 0, null);
+					reference.chooseMove(child);
+					score = reference.getBestScore();
+				}
+				if (child.getCurrentPlayer() != player) {
+					score = -score;
+				}
+				if (move.getScore() != score || move.getPrincipalVariation()[0] != move.getPit()
+						|| i > 0 && analysis[i - 1].getScore() < move.getScore()) {
+					System.out.println("FAIL: The analysis of " + move + " did not match a search of the move");
+					return false;
+				}
+			}
+			for (int pit = 0; pit < Board.SLOT_COUNT; pit++) {
+				if (board.isLegal(pit) != pits.contains(pit)) {
+					System.out.println("FAIL: The analysis did not cover exactly the legal moves");
+					return false;
+				}
+			}
+		}
+
+		Board board = new Board();
+		board.reset(4);
+		AlphaBetaEngine engine = new AlphaBetaEngine(10, 0, new TranspositionTable(4));
+		engine.analyze(board);
+		long firstNodes = engine.getNodesSearched();
+		MoveAnalysis[] analysis = engine.analyze(new Game());
+		if (engine.getNodesSearched() * 4 > firstNodes || analysis[0].getDepth() != 10) {
+			System.out.println("FAIL: Analysing the same position again did not reuse the table");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tests that the heuristic engine always chooses a legal move for either
+	 * player.
+	 * 
+	 * @return boolean, true if every move was legal, false otherwise
+	 */
+	private static boolean testHeuristicLegalMoves() {
+		Random rand = new Random(3);
+		HeuristicEngine engine = new HeuristicEngine(new Random(5));
+		for (int trial = 0; trial < 500; trial++) {
+			Board board = randomPosition(rand, rand.nextInt(40));
+			if (!board.isGameOver() && !board.isLegal(engine.chooseMove(board))) {
+				System.out.println("FAIL: The heuristic engine chose an illegal move");
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Executes when this program is ran. Will indicate the success or failure of
+	 * the methods.
+	 * 
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		if (testAlphaBetaMatchesMinimax() && testAlphaBetaTactics() && testTimeLimit()
+				&& testTranspositionTable() && testParallelMatchesSerial() && testLazySmpBeatsHeuristic()
+				&& testPondering() && testMonteCarlo() && testTablebase() && testOpeningBook()
+				&& testProofNumberSolver() && testEndgameSolver() && testDifficulty()
+				&& testSearchStats() && testMoveAnalysis() && testHeuristicLegalMoves()) {
+			System.out.println("SUCCESS: All test cases passed!");
+		}
+	}
+}
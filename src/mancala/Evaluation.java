@@ -0,0 +1,74 @@
+package mancala;
+
+/**
+ * Scores Mancala positions for the search engines. Scores are always given from
+ * the point of view of the player whose turn it is, so a positive score is good
+ * for the player to move.
+ * 
+ * <p>
+ * A score is measured in quarter marbles. A finished game scores four times the
+ * final difference between the two stores. An unfinished position scores four
+ * times the current difference between the stores, plus one for every marble
+ * the player to move has left on their side more than the opponent, since
+ * those marbles are likely to end up in that player's store.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class Evaluation {
+	public static final int SCORE_SCALE = 4;
+	public static final int MAX_SCORE = 1 << 20;
+
+	private Evaluation() {
+	}
+
+	/**
+	 * Scores a position for the player whose turn it is.
+	 * 
+	 * @param board the position to be scored
+	 * @return the score of the position in quarter marbles
+	 */
+	public static int evaluate(Board board) {
+		if (board.isGameOver()) {
+			return finalScore(board);
+		}
+		int player = board.getCurrentPlayer();
+		int storeDifference = board.getStoreCount(player) - board.getStoreCount(1 - player);
+		int sideDifference = board.getSideCount(player) - board.getSideCount(1 - player);
+		return storeDifference * SCORE_SCALE + sideDifference;
+	}
+
+	/**
+	 * Scores a finished game for the player whose turn it is. Every marble left on
+	 * the board is counted for the owner of the side it is on, as it would be
+	 * once the board is swept.
+	 * 
+	 * @param board a position where one side of the board is empty
+	 * @return the score of the position in quarter marbles
+	 */
+	public static int finalScore(Board board) {
+		return getFinalMargin(board) * SCORE_SCALE;
+	}
+
+	/**
+	 * Returns the number of marbles the player whose turn it is will finish the
+	 * game ahead by, counting the marbles left on each side for that side's owner.
+	 * 
+	 * @param board the position to be counted
+	 * @return the final difference between the two stores
+	 */
+	public static int getFinalMargin(Board board) {
+		int player = board.getCurrentPlayer();
+		return board.getStoreCount(player) + board.getSideCount(player) - board.getStoreCount(1 - player)
+				- board.getSideCount(1 - player);
+	}
+
+	/**
+	 * Converts a score back into the approximate number of marbles it stands for.
+	 * 
+	 * @param score a score in quarter marbles
+	 * @return the score rounded to whole marbles
+	 */
+	public static int toMarbles(int score) {
+		return Math.round(score / (float) SCORE_SCALE);
+	}
+}
@@ -0,0 +1,138 @@
+package mancala;
+
+/**
+ * The base of engines that answer some positions themselves, from a table or by
+ * solving them, and pass every other position on to another engine. The other
+ * engine keeps running in the background between moves, so pondering and
+ * shutting down are passed on to it here, once for every such engine. The
+ * statistics of each move are kept here too, whichever engine chose it.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public abstract class FallbackEngine implements SearchEngine {
+	private final SearchEngine fallback;
+	private long nodesSearched;
+	private SearchStats lastStats;
+
+	/**
+	 * Creates an engine that passes the positions it does not answer on to
+	 * another engine.
+	 *
+	 * @param fallback the engine used for the positions not answered here
+	 */
+	protected FallbackEngine(SearchEngine fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Chooses a move with the other engine and takes over its statistics.
+	 *
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	protected int chooseFallbackMove(Board position) {
+		int move = fallback.chooseMove(position);
+		recordMove(fallback.getNodesSearched(), fallback.getLastStats());
+		return move;
+	}
+
+	/**
+	 * Records the work done for a move answered here.
+	 *
+	 * @param nodesSearched the number of positions looked at
+	 * @param stats         the statistics of the move, or null if there are none
+	 */
+	protected void recordMove(long nodesSearched, SearchStats stats) {
+		this.nodesSearched = nodesSearched;
+		lastStats = stats;
+	}
+
+	/**
+	 * Returns the number of positions looked at while choosing the last move, by
+	 * this engine or the other one.
+	 *
+	 * @return the number of nodes searched for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the statistics of the last move chosen, by this engine or the other
+	 * one.
+	 *
+	 * @return the statistics of the last move, or null if there are none
+	 */
+	public SearchStats getLastStats() {
+		return lastStats;
+	}
+
+	/**
+	 * Returns the time the other engine allows itself for each move, which is
+	 * the budget of every move chosen here.
+	 *
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	public long getTimeLimit() {
+		return fallback.getTimeLimit();
+	}
+
+	/**
+	 * Sets the time the other engine allows itself for each move.
+	 *
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		fallback.setTimeLimit(timeLimitMillis);
+	}
+
+	/**
+	 * Asks the other engine to stop searching. Subclasses that search as well as
+	 * look moves up stop their own search too.
+	 */
+	public void requestStop() {
+		fallback.requestStop();
+	}
+
+	/**
+	 * Withdraws a request to stop the other engine.
+	 */
+	public void clearStop() {
+		fallback.clearStop();
+	}
+
+	/**
+	 * Passes pondering on to the other engine, since any position the opponent
+	 * leaves may be one this engine does not answer.
+	 *
+	 * @param position the position the other player is to move in, which is left
+	 *                 unchanged
+	 */
+	public void ponder(Board position) {
+		fallback.ponder(position);
+	}
+
+	/**
+	 * Stops the pondering of the other engine.
+	 */
+	public void stopPondering() {
+		fallback.stopPondering();
+	}
+
+	/**
+	 * Stops the threads of the other engine. The engine cannot be used
+	 * afterwards.
+	 */
+	public void shutdown() {
+		fallback.shutdown();
+	}
+
+	/**
+	 * Returns the engine used for the positions not answered here.
+	 *
+	 * @return the fallback engine
+	 */
+	public SearchEngine getFallback() {
+		return fallback;
+	}
+}
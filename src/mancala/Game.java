@@ -11,8 +11,14 @@ import java.util.List;
  */
 public class Game {
 
-	private List<Pit> storeList = new ArrayList<>();
-	private int currentPlayer;
+	/*
+	 * The undo records of Board.makeMove leave their high bits free, so the game
+	 * keeps the extra-turn flag it had before a move in one of them.
+	 */
+	private static final long PREVIOUS_EXTRA_TURN = 1L << 62;
+
+	private final Board board = new Board();
+	private List<Pit> storeList;
 	private boolean playerGetsAnotherMove;
 	private int winner;
 
@@ -21,7 +27,6 @@ public class Game {
 	 * player to player 0 (the first player)
 	 */
 	public Game() {
-		currentPlayer = 0;
 		winner = -1;
 		resetBoard();
 	}
@@ -37,63 +42,85 @@ public class Game {
 	 *         valid, false otherwise
 	 */
 	public boolean move(int selectedPitIndex) {
-		if (storeList.get(selectedPitIndex).getSide() != currentPlayer) {
+		if (!board.isLegal(selectedPitIndex)) {
 			return false;
 		}
 
-		if (storeList.get(selectedPitIndex).getMarbleList().size() == 0) {
-			return false;
+		boolean showMarbles = syncMarbles();
+		int marbleCount = board.getSeeds(selectedPitIndex);
+		board.sow(selectedPitIndex);
+		if (showMarbles) {
+			carrySownMarbles(selectedPitIndex, marbleCount, board.getCurrentPlayer());
 		}
 
-		Pit selectedPit = storeList.get(selectedPitIndex);
-		int marbleCount = selectedPit.getMarbleList().size();
-		Marble homePitMarble = null;
-		// Marbles can only be moved if there is at least 1 marble in the selected pit
-		if (marbleCount > 0) {
-			int currentPitIndex = selectedPitIndex;
-			// Move each marble in the selected pit to another pit
-			for (Marble marble : selectedPit.getMarbleList()) {
-
-				// skip the other players store
-				if (currentPlayer == 0) {
-					if (currentPitIndex == 12) {
-						currentPitIndex++;
-					}
-				}
-				// skip the other players store
-				if (currentPlayer == 1) {
-					if (currentPitIndex == 5) {
-						currentPitIndex++;
-					}
-				}
+		return true;
+	}
 
-				int nextPitIndex = currentPitIndex + 1;
-				if (nextPitIndex == selectedPitIndex) {
-					// skip the current pit until the end if there are enough marbles to loop all
-					// the way around the board
-					homePitMarble = marble;
-				} else if (nextPitIndex < storeList.size()) {
-					// Makes sure the pit index loops around if at the end of the list
-					// Moves the marble to the next pit on the board
-					Pit nextPit = storeList.get(nextPitIndex);
-					nextPit.addMarble(marble);
-				} else {
-					// After reaching the end of the list of pits, the marble is placed in the first
-					// pit, creating a wrap-around effect
-					nextPitIndex = 0;
-					Pit nextPit = storeList.get(nextPitIndex);
-					nextPit.addMarble(marble);
-				}
-				currentPitIndex = nextPitIndex;
+	/**
+	 * Plays a complete turn for the current player. The marbles of the selected
+	 * pit are sown, a capture is made if the last marble lands in an empty pit on
+	 * the player's side, and the turn passes to the other player unless the last
+	 * marble lands in the player's store. Everything about the move is worked out
+	 * once and returned, so callers do not need to call
+	 * {@link #setsAnotherMove(int)} or {@link #checkCapture(int)} themselves.
+	 * 
+	 * @param selectedPitIndex index of the pit the player wants to move
+	 * @return the outcome of the move, or null if the selected pit is not on the
+	 *         current player's side or is empty
+	 */
+	public MoveResult apply(int selectedPitIndex) {
+		if (!board.isLegal(selectedPitIndex)) {
+			return null;
+		}
+
+		boolean showMarbles = syncMarbles();
+		int player = board.getCurrentPlayer();
+		int marbleCount = board.getSeeds(selectedPitIndex);
+		long undo = makeMove(selectedPitIndex);
+		int endPitIndex = Board.getMoveEndSlot(undo);
+		int capturedCount = Board.getMoveCaptured(undo);
+
+		// Carry the marble images along with the move the board has made
+		if (showMarbles) {
+			carrySownMarbles(selectedPitIndex, marbleCount, player);
+			if (capturedCount != 0) {
+				carryCapturedMarbles(endPitIndex, capturedCount, player);
 			}
 		}
-		// Clears all marbles from the selected pit
-		selectedPit.getMarbleList().clear();
-		if (homePitMarble != null) {
-			selectedPit.addMarble(homePitMarble);
+
+		return new MoveResult(selectedPitIndex, player, endPitIndex, capturedCount, playerGetsAnotherMove,
+				hasWinner());
+	}
+
+	/**
+	 * Plays a complete turn on the board without moving any Marble objects,
+	 * including any capture and the change of turn. The move can be taken back
+	 * exactly with {@link #unmakeMove(long)}, which makes this pair suitable for
+	 * searching through future moves. The legality of the move is not checked.
+	 * 
+	 * @param selectedPitIndex index of the pit the player wants to move
+	 * @return a compact undo record for the move
+	 * @see Board#makeMove(int)
+	 */
+	public long makeMove(int selectedPitIndex) {
+		long undo = board.makeMove(selectedPitIndex);
+		if (playerGetsAnotherMove) {
+			undo |= PREVIOUS_EXTRA_TURN;
 		}
+		playerGetsAnotherMove = Board.isExtraTurn(undo);
+		return undo;
+	}
 
-		return true;
+	/**
+	 * Takes back a move made with {@link #makeMove(int)}, restoring the marble
+	 * counts, the current player and the extra-turn flag. Moves must be taken back
+	 * in the reverse order they were made in.
+	 * 
+	 * @param undo the undo record returned when the move was made
+	 */
+	public void unmakeMove(long undo) {
+		board.unmakeMove(undo);
+		playerGetsAnotherMove = (undo & PREVIOUS_EXTRA_TURN) != 0;
 	}
 
 	/**
@@ -105,21 +132,7 @@ public class Game {
 	 *         winner, false otherwise.
 	 */
 	public boolean hasWinner() {
-		// check the first side of the board for a winner
-		boolean side1Empty = true;
-		for (int i = 0; i < 6; i++) {
-			if (storeList.get(i).getMarbleList().size() != 0) {
-				side1Empty = false;
-			}
-		}
-		// check the second side of the board for a winner
-		boolean side2Empty = true;
-		for (int i = 7; i < 13; i++) {
-			if (storeList.get(i).getMarbleList().size() != 0) {
-				side2Empty = false;
-			}
-		}
-		return (side1Empty || side2Empty);
+		return board.isGameOver();
 	}
 
 	/**
@@ -127,14 +140,7 @@ public class Game {
 	 * 
 	 */
 	public void switchPlayer() {
-		// if the current player is 0, switch it
-		if (currentPlayer == 0) {
-			currentPlayer = 1;
-		}
-		// if the current player is 1, switch it
-		else if (currentPlayer == 1) {
-			currentPlayer = 0;
-		}
+		board.switchPlayer();
 	}
 
 	/**
@@ -144,8 +150,7 @@ public class Game {
 	 */
 	public void endGame() {
 		System.out.println("player " + getWinner() + " won the game! The score was, Player 0: "
-				+ storeList.get(6).getMarbleList().size() + " to Player 2:  "
-				+ storeList.get(13).getMarbleList().size());
+				+ getScore(0) + " to Player 2:  " + getScore(1));
 		resetBoard();
 	}
 
@@ -157,23 +162,10 @@ public class Game {
 	 * 
 	 */
 	public void resetBoard() {
-		storeList.clear();
-		currentPlayer = 0;
+		board.reset(4);
 		winner = -1;
-		// reset the first 6 pits
-		for (int i = 0; i < 6; i++) {
-			Pit pit = new Pit(4, 0);
-			storeList.add(pit);
-		}
-		// reset the first store at index 6
-		storeList.add(new Pit(0, -1));
-		// reset the second 6 pits
-		for (int i = 0; i < 6; i++) {
-			Pit pit = new Pit(4, 1);
-			storeList.add(pit);
-		}
-		// reset the second store at index 13
-		storeList.add(new Pit(0, -1));
+		// The pits and their marbles are created again when they are next needed
+		storeList = null;
 	}
 
 	/**
@@ -191,24 +183,7 @@ public class Game {
 	 * @see #moveCapturedMarbles(int)
 	 */
 	public boolean checkCapture(int endPitIndex) {
-		// if the end pit is in either of the stores, it can not be captured
-		if (endPitIndex == 13 || endPitIndex == 6) {
-			return false;
-		}
-
-		// check if the end pit is on your side
-		Pit endPit = storeList.get(endPitIndex);
-
-		if (endPit.getSide() != currentPlayer) {
-			return false;
-		}
-		// if the end pit marble count is 0 then we have a capture
-		Pit capturedPit = storeList.get(12 - endPitIndex);
-		if (endPit.getMarbleList().size() == 1 && capturedPit.getMarbleList().size() != 0) {
-			return true;
-		}
-
-		return false;
+		return board.isCapture(endPitIndex);
 	}
 
 	/**
@@ -220,29 +195,13 @@ public class Game {
 	 * @see #checkCapture(int)
 	 */
 	public void moveCapturedMarbles(int endPitIndex) {
-		Pit endPit = storeList.get(endPitIndex);
-		Pit capturedPit = storeList.get(12 - endPitIndex);
-
-		if (capturedPit.getMarbleList().size() != 0) {
-			// Determining which store gets the captured marbles
-			Pit currentStore = storeList.get(6);
-			if ((currentPlayer == 1)) {
-				currentStore = storeList.get(13);
-			}
-
-			// Moving all the marbles from the captured pit to the capturing player's store
-			for (Marble marble : capturedPit.getMarbleList()) {
-				currentStore.getMarbleList().add(marble);
-			}
-			capturedPit.getMarbleList().clear();
-
-			// Moving the marble from the capturing pit to the capturing player's store
-			currentStore.getMarbleList().add(endPit.getMarbleList().get(0));
-			endPit.getMarbleList().remove(0);
-
+		boolean showMarbles = syncMarbles();
+		int capturedCount = board.capture(endPitIndex);
+		if (showMarbles && capturedCount != 0) {
+			carryCapturedMarbles(endPitIndex, capturedCount, board.getCurrentPlayer());
 		}
 	}
-	
+
 	/**
 	 * Sets the playerGetsAnotherMove class variable to either true if the player
 	 * gets another move or false if the player' turn is over
@@ -251,69 +210,39 @@ public class Game {
 	 * @return boolean true if the player gets another move, false otherwise
 	 */
 	public boolean setsAnotherMove(int selectedPitIndex) {
-		Pit selectedPit = storeList.get(selectedPitIndex);
-		int marbleCount = selectedPit.getMarbleList().size();
+		int marbleCount = board.getSeeds(selectedPitIndex);
 
-		if (selectedPit.getMarbleList().size() == 0) {
+		if (marbleCount == 0) {
 			playerGetsAnotherMove = false;
 			return false;
 		}
 
-		// checking if the marbles get to the end of the list and will loop around
-		int endPitIndex = selectedPitIndex + marbleCount;
-		if (endPitIndex > 13) {
-			endPitIndex -= 13;
-		}
-
-		// checking which store to check
-		if (currentPlayer == 0) {
-			if (endPitIndex == 6) {
-				playerGetsAnotherMove = true;
-				return true;
-			}
-		} else {
-			if (endPitIndex == 13) {
-				playerGetsAnotherMove = true;
-				return true;
-			}
-		}
-		playerGetsAnotherMove = false;
-		return false;
+		// The last marble lands in the same slot the board's sowing ends in
+		int endPitIndex = Board.getEndSlot(selectedPitIndex, marbleCount, board.getCurrentPlayer());
+		playerGetsAnotherMove = endPitIndex == Board.getStore(board.getCurrentPlayer());
+		return playerGetsAnotherMove;
 	}
-	
+
 	/**
 	 * Sets the winner of the game.
 	 */
 	public void setWinner() {
 		// compare the stores of each player
 		if (hasWinner()) {
-			// Determine which side of the board is empty
-			int emptySide = 0;
-			for (int i = 0; i < 6; i++) {
-				if (storeList.get(i).getMarbleList().size() != 0) {
-					emptySide = 1;
-				}
-			}
-
-			// Move all marbles from the non-empty side to the corresponding player's store
-			if (emptySide == 0) {
-				for (int i = 7; i < 13; i++) {
-					for (Marble marble : storeList.get(i).getMarbleList()) {
-						storeList.get(13).getMarbleList().add(marble);
+			// Move all marbles left on the board to the corresponding player's store
+			boolean showMarbles = syncMarbles();
+			for (int i = 0; showMarbles && i < Board.SLOT_COUNT; i++) {
+				if (!Board.isStore(i)) {
+					Pit store = storeList.get(Board.getStore(Board.getSide(i)));
+					for (int j = board.getSeeds(i); j > 0; j--) {
+						store.placeMarble(storeList.get(i).takeMarble());
 					}
-					storeList.get(i).getMarbleList().clear();
-				}
-			} else {
-				for (int i = 0; i < 6; i++) {
-					for (Marble marble : storeList.get(i).getMarbleList()) {
-						storeList.get(6).getMarbleList().add(marble);
-					}
-					storeList.get(i).getMarbleList().clear();
 				}
 			}
+			board.sweep();
 
 			// if player 0 has a greater amount in their store, return 0
-			if (storeList.get(6).getMarbleList().size() > storeList.get(13).getMarbleList().size()) {
+			if (getScore(0) > getScore(1)) {
 				winner = 0;
 			} else {
 				// otherwise, return player 1
@@ -332,6 +261,17 @@ public class Game {
 
 	}
 
+	/**
+	 * Returns the number of marbles in the given player's store. This reads the
+	 * board's count directly rather than the store's list of marbles.
+	 * 
+	 * @param player the player whose score is returned (0 or 1)
+	 * @return the number of marbles in the player's store
+	 */
+	public int getScore(int player) {
+		return board.getStoreCount(player);
+	}
+
 	/**
 	 * Returns whether or not the player gets another turn. The player gets another
 	 * turn if the last marble that they move ends in their store.
@@ -343,11 +283,19 @@ public class Game {
 	}
 
 	/**
-	 * Returns a list of pits that the board is made of.
+	 * Returns a list of pits that the board is made of. The pits and their Marble
+	 * objects are only created the first time this is called, so a game that is
+	 * played without graphics never creates any marbles.
 	 * 
 	 * @return a list of pits that the board is made of
 	 */
 	public List<Pit> getStoreList() {
+		if (storeList == null) {
+			storeList = new ArrayList<>();
+			for (int i = 0; i < Board.SLOT_COUNT; i++) {
+				storeList.add(new Pit(board, i, Board.getSide(i)));
+			}
+		}
 		return storeList;
 	}
 
@@ -357,7 +305,7 @@ public class Game {
 	 * @return the current player
 	 */
 	public int getCurrentPlayer() {
-		return currentPlayer;
+		return board.getCurrentPlayer();
 	}
 	
 	/**
@@ -365,6 +313,68 @@ public class Game {
 	 * @param currentPlayer
 	 */
 	public void setCurrentPlayer(int currentPlayer) {
-		this.currentPlayer = currentPlayer;
+		board.setCurrentPlayer(currentPlayer);
+	}
+
+	/**
+	 * Returns the count-only board the game is played on. Simulations should work
+	 * on this board, or a copy of it, rather than on the list of pits.
+	 * 
+	 * @return the board holding the marble count of every pit and store
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Moves the Marble objects of a sown pit along the same path the board sowed
+	 * its marbles on. The first marble of the pit goes to the next pit, the second
+	 * to the one after, and so on.
+	 * 
+	 * @param selectedPitIndex index of the pit that was sown
+	 * @param marbleCount      the number of marbles that were sown
+	 * @param player           the player who sowed the pit
+	 */
+	private void carrySownMarbles(int selectedPitIndex, int marbleCount, int player) {
+		Pit selectedPit = storeList.get(selectedPitIndex);
+		int currentPitIndex = selectedPitIndex;
+		for (int i = 0; i < marbleCount; i++) {
+			currentPitIndex = Board.nextSlot(currentPitIndex, player);
+			storeList.get(currentPitIndex).placeMarble(selectedPit.takeMarble());
+		}
+	}
+
+	/**
+	 * Moves the Marble objects of a captured pit, along with the capturing marble,
+	 * into the capturing player's store.
+	 * 
+	 * @param endPitIndex   index of the capturing pit
+	 * @param capturedCount the number of marbles in the captured pit
+	 * @param player        the player who made the capture
+	 */
+	private void carryCapturedMarbles(int endPitIndex, int capturedCount, int player) {
+		Pit capturedPit = storeList.get(Board.getOppositePit(endPitIndex));
+		Pit currentStore = storeList.get(Board.getStore(player));
+		for (int i = 0; i < capturedCount; i++) {
+			currentStore.placeMarble(capturedPit.takeMarble());
+		}
+		currentStore.placeMarble(storeList.get(endPitIndex).takeMarble());
+	}
+
+	/**
+	 * Brings the Marble objects of every pit back in step with the board's marble
+	 * counts before they are carried along with a move.
+	 * 
+	 * @return true if the pits have been created and their marbles should be
+	 *         carried along with the move, false if the game has no pits yet
+	 */
+	private boolean syncMarbles() {
+		if (storeList == null) {
+			return false;
+		}
+		for (Pit pit : storeList) {
+			pit.syncMarbles();
+		}
+		return true;
 	}
 }
\ No newline at end of file
@@ -246,6 +246,181 @@ public class GameTest {
 		return true;
 	}
 
+	/**
+	 * Tests that the marble lists of the pits stay in step with the board's marble
+	 * counts, including for a move that travels all the way around the board.
+	 * 
+	 * @return boolean, true if the counts match after every move, false otherwise
+	 */
+	private static boolean testBoardCounts() {
+		Game newGame = new Game();
+		newGame.getBoard().setSeeds(2, 15);
+		newGame.move(2);
+
+		// 15 marbles from pit 2 skip Player 2's store and land on pit 4 on the second lap
+		if (newGame.getBoard().getSeeds(2) != 1 || newGame.getBoard().getSeeds(4) != 6
+				|| newGame.getBoard().getSeeds(6) != 1 || newGame.getBoard().getSeeds(13) != 0) {
+			System.out.println("FAIL: The marbles from a 15-marble pit were not moved correctly");
+			return false;
+		}
+
+		newGame.switchPlayer();
+		newGame.move(9);
+		int total = 0;
+		for (int i = 0; i < newGame.getStoreList().size(); i++) {
+			Pit pit = newGame.getStoreList().get(i);
+			if (pit.getMarbleList().size() != newGame.getBoard().getSeeds(i)) {
+				System.out.println("FAIL: The marbles in a pit do not match the board's marble count");
+				return false;
+			}
+			total += pit.getMarbleCount();
+		}
+		if (total != 59) {
+			System.out.println("FAIL: Marbles were created or lost during a move");
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Tests encoding game positions into packed keys, and playing moves directly on
+	 * the packed keys.
+	 * 
+	 * @return boolean, true if the packed keys match the game, false otherwise
+	 */
+	private static boolean testPackedBoard() {
+		Game newGame = new Game();
+		Board decoded = new Board();
+		long key = PackedBoard.pack(newGame);
+		int[] moves = { 2, 9, 5, 12, 1, 8, 0, 10, 4, 7 };
+
+		for (int selectedPitIndex : moves) {
+			if (!newGame.getBoard().isLegal(selectedPitIndex)) {
+				newGame.switchPlayer();
+				key = PackedBoard.pack(newGame);
+			}
+			key = PackedBoard.applyMove(key, selectedPitIndex);
+
+			// Play the same move on the game itself
+			int endPitIndex = newGame.getBoard().sow(selectedPitIndex);
+			if (newGame.checkCapture(endPitIndex)) {
+				newGame.moveCapturedMarbles(endPitIndex);
+			}
+			if (endPitIndex != Board.getStore(newGame.getCurrentPlayer())) {
+				newGame.switchPlayer();
+			}
+
+			if (key != PackedBoard.pack(newGame)) {
+				System.out.println("FAIL: A move played on a packed key does not match the game");
+				return false;
+			}
+			PackedBoard.unpack(key, decoded);
+			for (int i = 0; i < Board.SLOT_COUNT; i++) {
+				if (decoded.getSeeds(i) != newGame.getBoard().getSeeds(i)
+						|| PackedBoard.getSeeds(key, i) != newGame.getBoard().getSeeds(i)) {
+					System.out.println("FAIL: A packed key was not decoded into the same position");
+					return false;
+				}
+			}
+			if (decoded.getCurrentPlayer() != newGame.getCurrentPlayer()) {
+				System.out.println("FAIL: A packed key was not decoded with the same current player");
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Tests making moves with makeMove and taking them back with unmakeMove.
+	 * 
+	 * @return boolean, true if every move is taken back exactly, false otherwise
+	 */
+	private static boolean testMakeUnmakeMove() {
+		Game newGame = new Game();
+		// Pit 1 holds enough marbles to travel all the way around the board
+		newGame.getBoard().setSeeds(0, 0);
+		newGame.getBoard().setSeeds(1, 13);
+		newGame.getBoard().setSeeds(2, 0);
+		newGame.getBoard().setSeeds(3, 0);
+		long startKey = PackedBoard.pack(newGame);
+		long[] undoRecords = new long[200];
+		int moveCount = 0;
+
+		// Always play the first legal pit until the game is over
+		while (!newGame.hasWinner()) {
+			int selectedPitIndex = 0;
+			while (!newGame.getBoard().isLegal(selectedPitIndex)) {
+				selectedPitIndex++;
+			}
+			undoRecords[moveCount++] = newGame.makeMove(selectedPitIndex);
+			if (newGame.getsAnotherMove() != Board.isExtraTurn(undoRecords[moveCount - 1])) {
+				System.out.println("FAIL: makeMove did not set the extra-turn flag");
+				return false;
+			}
+		}
+
+		// Take every move back, checking that the extra-turn flag is restored
+		while (moveCount > 0) {
+			newGame.unmakeMove(undoRecords[--moveCount]);
+			boolean previousExtraTurn = moveCount > 0 && Board.isExtraTurn(undoRecords[moveCount - 1]);
+			if (newGame.getsAnotherMove() != previousExtraTurn) {
+				System.out.println("FAIL: unmakeMove did not restore the extra-turn flag");
+				return false;
+			}
+		}
+		if (PackedBoard.pack(newGame) != startKey) {
+			System.out.println("FAIL: unmakeMove did not restore the starting position");
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Tests playing complete turns with the apply method.
+	 * 
+	 * @return boolean, true if every move result is correct, false otherwise
+	 */
+	private static boolean testApply() {
+		Game newGame = new Game();
+
+		// Four marbles from pit 2 end in Player 1's store
+		MoveResult result = newGame.apply(2);
+		if (result.getEndPitIndex() != 6 || !result.isExtraTurn() || result.isCapture()
+				|| newGame.getCurrentPlayer() != 0) {
+			System.out.println("FAIL: A move ending in the player's store did not give another move");
+			return false;
+		}
+
+		// Moving a pit from the other player's side is not allowed
+		if (newGame.apply(8) != null) {
+			System.out.println("FAIL: A pit on the other player's side was moved");
+			return false;
+		}
+
+		// The single marble in pit 0 lands in the empty pit 1 and captures pit 11
+		newGame.getStoreList().get(0).getMarbleList().remove(0);
+		newGame.getStoreList().get(0).getMarbleList().remove(0);
+		newGame.getStoreList().get(0).getMarbleList().remove(0);
+		newGame.getStoreList().get(1).getMarbleList().clear();
+		result = newGame.apply(0);
+		if (result.getEndPitIndex() != 1 || result.getCapturedCount() != 4 || result.isExtraTurn()
+				|| newGame.getCurrentPlayer() != 1) {
+			System.out.println("FAIL: A capture was not reported by the move result");
+			return false;
+		}
+		if (newGame.getStoreList().get(6).getMarbleList().size() != 6
+				|| newGame.getStoreList().get(11).getMarbleList().size() != 0
+				|| newGame.getStoreList().get(1).getMarbleList().size() != 0) {
+			System.out.println("FAIL: The captured marbles were not moved into the player's store");
+			return false;
+		}
+
+		return true;
+	}
+
 	/**
 	 * Executes when this program is ran. Will indicate the success or failure of
 	 * the methods.
@@ -254,7 +429,9 @@ public class GameTest {
 	 */
 	public static void main(String[] args) {
 		if (testGameInitialization() && testMove() && testHasWinner() && testSwitchPlayer() && testResetBoard()
-				&& testGetWinner()) {
+				&& testGetWinner() && testBoardCounts()
+				&& testPackedBoard() && testMakeUnmakeMove()
+				&& testApply()) {
 			System.out.println("SUCCESS: All test cases passed!");
 		}
 	}
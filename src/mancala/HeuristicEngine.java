@@ -0,0 +1,154 @@
+package mancala;
+
+import java.util.Random;
+
+/**
+ * The original computer opponent. It only looks at the move it is about to make
+ * and the reply the other player could make straight after it. A threatened
+ * capture is blocked if it would lose more marbles than the best capture
+ * available, otherwise the best capture is taken. With no capture on either
+ * side, a move that earns another turn is made, and failing that a random pit
+ * is chosen.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class HeuristicEngine implements SearchEngine {
+	private final Board board = new Board();
+	private final Random rand;
+	private long nodesSearched;
+
+	/**
+	 * Creates a heuristic opponent that picks its fallback moves at random.
+	 */
+	public HeuristicEngine() {
+		this(new Random());
+	}
+
+	/**
+	 * Creates a heuristic opponent that picks its fallback moves with the given
+	 * random number generator, so that its games can be repeated.
+	 * 
+	 * @param rand the random number generator used for fallback moves
+	 */
+	public HeuristicEngine(Random rand) {
+		this.rand = rand;
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	public int chooseMove(Board position) {
+		/*
+		 * Every candidate move is played on a scratch copy of the board with
+		 * makeMove and taken back with unmakeMove, so the shared game is never
+		 * changed and no Marble objects are created while simulating.
+		 */
+		board.copyFrom(position);
+		nodesSearched = 0;
+		int player = board.getCurrentPlayer();
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int firstOpponentPit = (1 - player) * (Board.PITS_PER_SIDE + 1);
+
+		// Chooses a random index in case no better move is found
+		int bestPitIndex = rand.nextInt(Board.PITS_PER_SIDE) + firstPit;
+		while (board.getSeeds(bestPitIndex) == 0) {
+			bestPitIndex = rand.nextInt(Board.PITS_PER_SIDE) + firstPit;
+		}
+
+		// Determine if there are any opportunities for the other player to gain a
+		// capture
+		int greatestMarbleLossPitIndex = 0;
+		int greatestMarbleLoss = 0;
+		board.setCurrentPlayer(1 - player);
+		for (int i = firstOpponentPit; i < firstOpponentPit + Board.PITS_PER_SIDE; i++) {
+			if (board.getSeeds(i) > 0) {
+				long undo = board.makeMove(i);
+				nodesSearched++;
+				int possibleMarbleLoss = Board.getMoveCaptured(undo);
+				int threatenedPitIndex = Board.getOppositePit(Board.getMoveEndSlot(undo));
+				board.unmakeMove(undo);
+				// A pit that only fills up during the other player's move can't be moved now
+				if (possibleMarbleLoss > greatestMarbleLoss && board.getSeeds(threatenedPitIndex) > 0) {
+					greatestMarbleLoss = possibleMarbleLoss;
+					greatestMarbleLossPitIndex = threatenedPitIndex;
+				}
+			}
+		}
+
+		// Determine if there are any opportunities to gain a capture
+		int greatestMarbleGainPitIndex = 0;
+		int greatestMarbleGain = 0;
+		board.setCurrentPlayer(player);
+		for (int i = firstPit; i < firstPit + Board.PITS_PER_SIDE; i++) {
+			if (board.getSeeds(i) > 0) {
+				long undo = board.makeMove(i);
+				nodesSearched++;
+				int possibleMarbleGain = Board.getMoveCaptured(undo) + 1;
+				if (Board.getMoveCaptured(undo) > 0 && possibleMarbleGain > greatestMarbleGain) {
+					greatestMarbleGain = possibleMarbleGain;
+					greatestMarbleGainPitIndex = i;
+				}
+				board.unmakeMove(undo);
+			}
+		}
+
+		// Make whichever move will result in a greater number of marbles gained:
+		// blocking the other player's capture or gaining a capture for yourself
+		if (greatestMarbleLoss > greatestMarbleGain) {
+			return greatestMarbleLossPitIndex;
+		} else if (greatestMarbleGain > 0) {
+			return greatestMarbleGainPitIndex;
+		}
+
+		// If there's a move that will allow for another turn, make it
+		for (int i = firstPit; i < firstPit + Board.PITS_PER_SIDE; i++) {
+			if (board.getSeeds(i) > 0 && Board.getEndSlot(i, board.getSeeds(i), player) == Board.getStore(player)) {
+				return i;
+			}
+		}
+
+		return bestPitIndex;
+	}
+
+	/**
+	 * Returns the number of moves tried while choosing the last move.
+	 * 
+	 * @return the number of nodes searched for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns 0, as the engine only looks one move ahead and needs no time limit.
+	 * 
+	 * @return 0, for no limit
+	 */
+	public long getTimeLimit() {
+		return 0;
+	}
+
+	/**
+	 * Does nothing, as the engine only looks one move ahead and needs no time
+	 * limit.
+	 * 
+	 * @param timeLimitMillis ignored
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+	}
+
+	/**
+	 * Does nothing, as a move is chosen at once.
+	 */
+	public void requestStop() {
+	}
+
+	/**
+	 * Does nothing, as a move is chosen at once.
+	 */
+	public void clearStop() {
+	}
+}
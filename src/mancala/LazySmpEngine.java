@@ -0,0 +1,390 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A computer opponent that searches with several threads using Lazy SMP. Every
+ * thread runs its own iterative deepening {@link AlphaBetaEngine} on the same
+ * position, and all of them share one {@link TranspositionTable}. Whatever one
+ * thread finds is picked up by the others through the table, so between them
+ * they reach a greater depth than one thread alone.
+ * 
+ * <p>
+ * The searches are kept from doing the same work by giving every thread its own
+ * schedule of depths. The main search tries every depth from 1; each helper
+ * steps a fixed number of depths between iterations, starting at a depth no
+ * greater than its step, so no two threads search the same depths in the same
+ * order. The main search runs on the
+ * thread that asked for the move and keeps to the time limit; once it finishes,
+ * the helpers are told to stop. The move of whichever search completed the
+ * greatest depth is played, preferring the main search.
+ * 
+ * <p>
+ * The threads share nothing but the table, which needs no locks, so there is no
+ * synchronisation while searching.
+ * 
+ * <p>
+ * While the other player is deciding on a move, the engine can ponder on one
+ * more thread of the lowest priority. Every legal reply is searched one depth
+ * at a time, the reply the table predicts first, into the same table. When the
+ * real move arrives the pondering stops, and the search of the position it led
+ * to finds the subtree already in the table, so it reaches its depth sooner
+ * while still being given its full time.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class LazySmpEngine implements SearchEngine {
+	private final TranspositionTable table;
+	private final AlphaBetaEngine mainSearch;
+	private final AlphaBetaEngine[] helpers;
+	private final ExecutorService helperThreads;
+	private final AlphaBetaEngine ponderSearch;
+	private final ExecutorService ponderThread;
+	private Future<?> pondering;
+	private volatile long ponderNodes;
+	private long nodeLimit;
+	private long nodesSearched;
+	private int bestScore;
+	private int completedDepth;
+	private SearchStats lastStats;
+
+	/**
+	 * Creates a Lazy SMP opponent with one thread for each processor.
+	 * 
+	 * @param timeLimitMillis the time allowed for each move in milliseconds
+	 */
+	public LazySmpEngine(long timeLimitMillis) {
+		this(Runtime.getRuntime().availableProcessors(), timeLimitMillis, AlphaBetaEngine.DEFAULT_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a Lazy SMP opponent.
+	 * 
+	 * @param threadCount     the number of threads to search with, including the
+	 *                        thread that asks for the move
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 * @param tableMegabytes  the most memory the shared transposition table may
+	 *                        use, in megabytes
+	 */
+	public LazySmpEngine(int threadCount, long timeLimitMillis, int tableMegabytes) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Lazy SMP needs at least one thread: " + threadCount);
+		}
+		table = new TranspositionTable(tableMegabytes);
+		mainSearch = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, timeLimitMillis, table);
+		helpers = new AlphaBetaEngine[threadCount - 1];
+		// Schedules in order: from 2 by 1, from 1 and 2 by 2, from 1, 2 and 3 by 3...
+		int depthStep = 1;
+		int firstDepth = 2;
+		for (int i = 0; i < helpers.length; i++) {
+			helpers[i] = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, table);
+			helpers[i].setDepthSchedule(firstDepth, depthStep);
+			if (++firstDepth > depthStep) {
+				depthStep++;
+				firstDepth = 1;
+			}
+		}
+		helperThreads = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+			Thread thread = new Thread(runnable, "Lazy SMP helper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ponderSearch = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, table);
+		ponderThread = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Lazy SMP ponder");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public int chooseMove(Board position) {
+		stopPondering();
+		long startTime = System.nanoTime();
+		Board root = new Board(position);
+		List<Future<Integer>> helperMoves = new ArrayList<>(helpers.length);
+		for (AlphaBetaEngine helper : helpers) {
+			helper.clearStop();
+			helperMoves.add(helperThreads.submit(() -> helper.chooseMove(root)));
+		}
+
+		int bestMove = mainSearch.chooseMove(root);
+		bestScore = mainSearch.getBestScore();
+		completedDepth = mainSearch.getCompletedDepth();
+		nodesSearched = mainSearch.getNodesSearched();
+		long tableHits = mainSearch.getTableHits();
+		long cutoffs = mainSearch.getCutoffs();
+
+		for (AlphaBetaEngine helper : helpers) {
+			helper.requestStop();
+		}
+		for (int i = 0; i < helpers.length; i++) {
+			int helperMove = waitFor(helperMoves.get(i));
+			nodesSearched += helpers[i].getNodesSearched();
+			tableHits += helpers[i].getTableHits();
+			cutoffs += helpers[i].getCutoffs();
+			if (helpers[i].getCompletedDepth() > completedDepth) {
+				bestMove = helperMove;
+				bestScore = helpers[i].getBestScore();
+				completedDepth = helpers[i].getCompletedDepth();
+			}
+		}
+		lastStats = new SearchStats(nodesSearched, tableHits, cutoffs, completedDepth, System.nanoTime() - startTime,
+				bestScore, AlphaBetaEngine.getPrincipalVariation(root, bestMove, completedDepth, table));
+		return bestMove;
+	}
+
+	/**
+	 * Starts searching the replies to a position in the background, while the
+	 * other player decides which one to play. Any earlier pondering is stopped.
+	 * 
+	 * @param position the position the other player is to move in, which is
+	 *                 copied and left unchanged
+	 */
+	public synchronized void ponder(Board position) {
+		stopPondering();
+		if (position.isGameOver()) {
+			return;
+		}
+		Board root = new Board(position);
+		ponderNodes = 0;
+		ponderSearch.clearStop();
+		pondering = ponderThread.submit(() -> ponderReplies(root));
+	}
+
+	/**
+	 * Stops pondering and waits for the pondering thread to finish, so that it no
+	 * longer competes with the real search. Does nothing if the engine is not
+	 * pondering.
+	 */
+	public synchronized void stopPondering() {
+		if (pondering == null) {
+			return;
+		}
+		ponderSearch.requestStop();
+		try {
+			pondering.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Pondering failed", e.getCause());
+		}
+		pondering = null;
+	}
+
+	/**
+	 * Searches the position after every legal reply, one depth deeper each round,
+	 * until told to stop or every reply has been searched to the end of the game.
+	 */
+	private void ponderReplies(Board root) {
+		int[] replies = new int[Board.PITS_PER_SIDE];
+		int replyCount = 0;
+		int firstPit = root.getCurrentPlayer() * (Board.PITS_PER_SIDE + 1);
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (root.isLegal(pit)) {
+				replies[replyCount++] = pit;
+			}
+		}
+		long entry = table.probe(ZobristHash.hash(root));
+		int predicted = TranspositionTable.getMove(entry);
+		if (entry != TranspositionTable.MISS && predicted != TranspositionTable.NO_MOVE && root.isLegal(predicted)) {
+			AlphaBetaEngine.moveToFront(replies, predicted);
+		}
+
+		Board[] children = new Board[replyCount];
+		for (int i = 0; i < replyCount; i++) {
+			children[i] = new Board(root);
+			children[i].makeMove(replies[i]);
+		}
+		for (int depth = 1; depth <= AlphaBetaEngine.MAX_PLY; depth++) {
+			boolean horizonReached = false;
+			for (Board child : children) {
+				if (child.isGameOver()) {
+					continue;
+				}
+				if (nodeLimit != 0) {
+					ponderSearch.setNodeLimit(Math.max(1, nodeLimit - ponderNodes));
+				}
+				ponderSearch.searchSubtree(child, depth, -Evaluation.MAX_SCORE, Evaluation.MAX_SCORE, Long.MAX_VALUE);
+				ponderNodes += ponderSearch.getNodesSearched();
+				if (ponderSearch.isTimeUp() || nodeLimit != 0 && ponderNodes >= nodeLimit) {
+					return;
+				}
+				horizonReached |= ponderSearch.isHorizonReached();
+			}
+			if (!horizonReached) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Waits for a helper to stop and returns its move.
+	 */
+	private static int waitFor(Future<Integer> helperMove) {
+		try {
+			return helperMove.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a helper search", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A helper search failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Returns the number of positions searched while choosing the last move, over
+	 * all threads.
+	 * 
+	 * @return the number of nodes searched for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the statistics of the last move chosen, with the positions, table
+	 * hits and cutoffs of every thread added together.
+	 * 
+	 * @return the statistics of the last search, or null if no move has been
+	 *         chosen yet
+	 */
+	public SearchStats getLastStats() {
+		return lastStats;
+	}
+
+	/**
+	 * Returns the score of the last move chosen, from the point of view of the
+	 * player who was to move.
+	 * 
+	 * @return the score of the last move in quarter marbles
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Returns the deepest search that was completed for the last move.
+	 * 
+	 * @return the number of moves looked ahead for the last move
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Asks the search running on another thread to stop at its next clock check.
+	 * The main search keeps the request until {@link #clearStop()} is called; the
+	 * helpers are stopped with it and cleared at the start of every move.
+	 */
+	public void requestStop() {
+		mainSearch.requestStop();
+		for (AlphaBetaEngine helper : helpers) {
+			helper.requestStop();
+		}
+	}
+
+	/**
+	 * Withdraws a request to stop, so that the next move is searched normally.
+	 */
+	public void clearStop() {
+		mainSearch.clearStop();
+	}
+
+	/**
+	 * Returns the time allowed for each move.
+	 * 
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	public long getTimeLimit() {
+		return mainSearch.getTimeLimit();
+	}
+
+	/**
+	 * Sets the time allowed for each move. Only the main search keeps the time;
+	 * the helpers are stopped once it is done.
+	 * 
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 * @throws IllegalArgumentException if the time limit is negative
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		mainSearch.setTimeLimit(timeLimitMillis);
+	}
+
+	/**
+	 * Returns the most positions each thread searches for a move, and the most
+	 * positions searched while pondering on one move of the other player.
+	 * 
+	 * @return the node limit, or 0 if there is no limit
+	 */
+	public long getNodeLimit() {
+		return nodeLimit;
+	}
+
+	/**
+	 * Sets the most positions each thread searches for a move, and the most
+	 * positions searched while pondering on one move of the other player, so that
+	 * the work done for each move is bounded by the thread count times the limit.
+	 * 
+	 * @param nodeLimit the node limit, or 0 for no limit
+	 * @throws IllegalArgumentException if the node limit is negative
+	 */
+	public void setNodeLimit(long nodeLimit) {
+		mainSearch.setNodeLimit(nodeLimit);
+		for (AlphaBetaEngine helper : helpers) {
+			helper.setNodeLimit(nodeLimit);
+		}
+		this.nodeLimit = nodeLimit;
+	}
+
+	/**
+	 * Returns the number of threads the search is shared between.
+	 * 
+	 * @return the number of searching threads, including the main search
+	 */
+	public int getThreadCount() {
+		return helpers.length + 1;
+	}
+
+	/**
+	 * Returns the transposition table shared by the searching threads.
+	 * 
+	 * @return the shared transposition table
+	 */
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Returns the number of positions searched by the current or last pondering.
+	 * 
+	 * @return the number of nodes searched while pondering
+	 */
+	public long getPonderNodes() {
+		return ponderNodes;
+	}
+
+	/**
+	 * Stops the helper and pondering threads. The engine cannot be used
+	 * afterwards.
+	 */
+	public void shutdown() {
+		if (helperThreads != null) {
+			helperThreads.shutdownNow();
+		}
+		ponderThread.shutdownNow();
+	}
+}
@@ -0,0 +1,98 @@
+package mancala;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Maps the data of large read-only files, such as tablebases and opening books,
+ * into memory with {@link FileChannel#map}. Nothing is read onto the heap: the
+ * operating system pages the file in as it is used, and every JVM on the machine
+ * that maps the same file shares the same pages. Mapping takes the same few
+ * milliseconds however large the file is.
+ * 
+ * <p>
+ * A single mapping cannot be larger than 2 GB, so the data is mapped in chunks
+ * of 1 GB and an index into the data is split into a chunk and an offset.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+final class MappedFile {
+	static final int CHUNK_BITS = 30;
+	static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+	private MappedFile() {
+	}
+
+	/**
+	 * Maps part of a file into memory, read only.
+	 * 
+	 * @param file   the file to be mapped
+	 * @param offset the position in the file the data starts at
+	 * @param length the number of bytes of data
+	 * @return the chunks of the mapped data
+	 * @throws IOException if the file cannot be opened or is too short
+	 */
+	static ByteBuffer[] map(File file, long offset, long length) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() < offset + length) {
+				throw new IOException(file + " is shorter than its header says");
+			}
+			ByteBuffer[] chunks = new ByteBuffer[(int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+			for (int i = 0; i < chunks.length; i++) {
+				long start = i * CHUNK_SIZE;
+				MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, offset + start,
+						Math.min(CHUNK_SIZE, length - start));
+				chunks[i] = chunk;
+			}
+			return chunks;
+		}
+	}
+
+	/**
+	 * Reads the header of a file into a buffer.
+	 * 
+	 * @param file   the file to be read
+	 * @param length the number of bytes of header
+	 * @return a buffer holding the header
+	 * @throws IOException if the file cannot be read or is too short
+	 */
+	static ByteBuffer readHeader(File file, int length) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(length);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException(file + " is too short to have a header");
+				}
+			}
+			header.flip();
+			return header;
+		}
+	}
+
+	/**
+	 * Returns one byte of mapped data.
+	 * 
+	 * @param chunks the chunks of the data
+	 * @param index  the position of the byte in the data
+	 * @return the byte
+	 */
+	static byte getByte(ByteBuffer[] chunks, long index) {
+		return chunks[(int) (index >>> CHUNK_BITS)].get((int) (index & (CHUNK_SIZE - 1)));
+	}
+
+	/**
+	 * Returns one long of mapped data. Longs must be stored at positions that are
+	 * a multiple of 8, so that none of them is split between two chunks.
+	 * 
+	 * @param chunks the chunks of the data
+	 * @param index  the position of the long in the data
+	 * @return the long
+	 */
+	static long getLong(ByteBuffer[] chunks, long index) {
+		return chunks[(int) (index >>> CHUNK_BITS)].getLong((int) (index & (CHUNK_SIZE - 1)));
+	}
+}
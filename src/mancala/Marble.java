@@ -1,22 +1,24 @@
 package mancala;
 
-import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
 import java.util.Random;
 
-import javax.imageio.ImageIO;
-
 /**
  * Contains all information necessary for a marble in the Mancala game.
  * 
  * @author Ryan Johnson, Hank Rugg
  */
 public class Marble {
-	private static Image[] MARBLE_IMAGES_LIST = new Image[6];
-	private final Image marbleImage;
-	private final Random rand = new Random();
+	/*
+	 * A marble only keeps the index of its color and its coordinates. The images
+	 * are shared by all marbles through MarbleSprites and are looked up by the
+	 * panels when painting, so creating a marble never loads an image. Every color
+	 * is drawn from one generator, which can be seeded to make the colors
+	 * repeatable.
+	 */
+	public static final int COLOR_COUNT = 6;
+	private static final Random COLOR_GENERATOR = new Random();
+
+	private final byte color;
 	private int xcord;
 	private int ycord;
 
@@ -26,53 +28,36 @@ public class Marble {
 	 * is assigned a random color from the list of marble images.
 	 */
 	public Marble() {
-		this.marbleImage = MARBLE_IMAGES_LIST[rand.nextInt(MARBLE_IMAGES_LIST.length)];
+		this(COLOR_GENERATOR.nextInt(COLOR_COUNT));
 	}
 
 	/**
-	 * Splits the primary image (mancalaImages.png), containing all images necessary
-	 * to the Mancala game, into separate images used for the wooden Mancala board
-	 * and each of the marble images. These images are resized from the original
-	 * image sizes to properly fit the dimensions of the program.
+	 * Creates a new marble of the given color.
+	 * 
+	 * @param color the color index of the marble, from 0 to
+	 *              {@link #COLOR_COUNT} - 1
 	 */
-	static {
-		// Define the dimensions for each image from the original image file
-		try {
-			BufferedImage mainImage = ImageIO.read(new File("images/mancalaImages.png"));
-			BufferedImage blueMarble = mainImage.getSubimage(33, 32, 120, 150);
-			BufferedImage greenMarble = mainImage.getSubimage(55, 285, 120, 150);
-			BufferedImage redMarble = mainImage.getSubimage(34, 542, 120, 100);
-			BufferedImage orangeMarble = mainImage.getSubimage(90, 770, 100, 100);
-			BufferedImage purpleMarble = mainImage.getSubimage(20, 979, 115, 100);
-			BufferedImage yellowMarble = mainImage.getSubimage(42, 1205, 110, 100);
-
-			// Scale the images to the correct size
-			Image resizedBlueMarble = blueMarble.getScaledInstance(25, 40, Image.SCALE_SMOOTH);
-			Image resizedGreenMarble = greenMarble.getScaledInstance(30, 40, Image.SCALE_SMOOTH);
-			Image resizedRedMarble = redMarble.getScaledInstance(35, 25, Image.SCALE_SMOOTH);
-			Image resizedOrangeMarble = orangeMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
-			Image resizedPurpleMarble = purpleMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
-			Image resizedYellowMarble = yellowMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
+	public Marble(int color) {
+		this.color = (byte) color;
+	}
 
-			// Add all of these resized images to the array of marble images
-			MARBLE_IMAGES_LIST[0] = resizedBlueMarble;
-			MARBLE_IMAGES_LIST[1] = resizedGreenMarble;
-			MARBLE_IMAGES_LIST[2] = resizedRedMarble;
-			MARBLE_IMAGES_LIST[3] = resizedOrangeMarble;
-			MARBLE_IMAGES_LIST[4] = resizedPurpleMarble;
-			MARBLE_IMAGES_LIST[5] = resizedYellowMarble;
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+	/**
+	 * Seeds the generator the colors of new marbles are drawn from, so that the
+	 * same sequence of colors is produced every time.
+	 * 
+	 * @param seed the seed for the shared color generator
+	 */
+	public static void setColorSeed(long seed) {
+		COLOR_GENERATOR.setSeed(seed);
 	}
 
 	/**
-	 * Returns the image associated with this marble.
+	 * Returns the color index of this marble.
 	 * 
-	 * @return Image returns the image associated with this marble
+	 * @return int returns the color index of this marble
 	 */
-	public Image getMarbleImage() {
-		return marbleImage;
+	public int getColor() {
+		return color;
 	}
 
 	/**
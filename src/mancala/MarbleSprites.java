@@ -0,0 +1,70 @@
+package mancala;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Holds the single table of marble images shared by every marble in the game.
+ * A marble only stores the index of its color, and its image is looked up in
+ * this table when the marble is painted.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class MarbleSprites {
+	private static final Image[] MARBLE_IMAGES_LIST = new Image[Marble.COLOR_COUNT];
+
+	private MarbleSprites() {
+	}
+
+	/**
+	 * Splits the primary image (mancalaImages.png), containing all images necessary
+	 * to the Mancala game, into separate images used for each of the marble
+	 * images. These images are resized from the original image sizes to properly
+	 * fit the dimensions of the program.
+	 */
+	static {
+		// Define the dimensions for each image from the original image file
+		try {
+			BufferedImage mainImage = ImageIO.read(new File("images/mancalaImages.png"));
+			BufferedImage blueMarble = mainImage.getSubimage(33, 32, 120, 150);
+			BufferedImage greenMarble = mainImage.getSubimage(55, 285, 120, 150);
+			BufferedImage redMarble = mainImage.getSubimage(34, 542, 120, 100);
+			BufferedImage orangeMarble = mainImage.getSubimage(90, 770, 100, 100);
+			BufferedImage purpleMarble = mainImage.getSubimage(20, 979, 115, 100);
+			BufferedImage yellowMarble = mainImage.getSubimage(42, 1205, 110, 100);
+
+			// Scale the images to the correct size
+			Image resizedBlueMarble = blueMarble.getScaledInstance(25, 40, Image.SCALE_SMOOTH);
+			Image resizedGreenMarble = greenMarble.getScaledInstance(30, 40, Image.SCALE_SMOOTH);
+			Image resizedRedMarble = redMarble.getScaledInstance(35, 25, Image.SCALE_SMOOTH);
+			Image resizedOrangeMarble = orangeMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
+			Image resizedPurpleMarble = purpleMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
+			Image resizedYellowMarble = yellowMarble.getScaledInstance(25, 25, Image.SCALE_SMOOTH);
+
+			// Add all of these resized images to the array of marble images
+			MARBLE_IMAGES_LIST[0] = resizedBlueMarble;
+			MARBLE_IMAGES_LIST[1] = resizedGreenMarble;
+			MARBLE_IMAGES_LIST[2] = resizedRedMarble;
+			MARBLE_IMAGES_LIST[3] = resizedOrangeMarble;
+			MARBLE_IMAGES_LIST[4] = resizedPurpleMarble;
+			MARBLE_IMAGES_LIST[5] = resizedYellowMarble;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Returns the image used to draw marbles of the given color.
+	 * 
+	 * @param color the color index of a marble, from 0 to
+	 *              {@link Marble#COLOR_COUNT} - 1
+	 * @return the image for the color
+	 */
+	public static Image getImage(int color) {
+		return MARBLE_IMAGES_LIST[color];
+	}
+}
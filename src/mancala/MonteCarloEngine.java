@@ -0,0 +1,522 @@
+package mancala;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A computer opponent that chooses its moves by Monte Carlo Tree Search with
+ * the UCT rule. Starting from the current position, the engine repeatedly walks
+ * down a tree of moves, choosing at each position the move with the best balance
+ * of past results and how little it has been tried, plays the rest of the game
+ * out at random and records the winner in every position along the walk. The
+ * most visited move at the root is played.
+ * 
+ * <p>
+ * The tree is kept in a pool of parallel primitive arrays rather than node
+ * objects. The children of a node are stored next to each other, so a node only
+ * needs the index of its first child and the number of children. Several
+ * threads can walk the tree at once: a node's visit is counted as soon as a
+ * thread passes through it, before its result is known, which makes it look
+ * like a loss for the moment (a virtual loss) and steers the other threads to
+ * different moves.
+ * 
+ * <p>
+ * After a move, the part of the tree below the position the game has reached is
+ * copied to the front of a second pool and searched further on the next move,
+ * rather than building a new tree.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class MonteCarloEngine implements SearchEngine {
+	public static final int DEFAULT_NODE_CAPACITY = 1 << 19;
+
+	// Weight given to trying moves that have few visits
+	private static final double EXPLORATION = 1.4;
+	// The longest walk down the tree
+	private static final int MAX_PATH_LENGTH = 256;
+	// A node is expanded on its second visit
+	private static final int EXPAND_VISITS = 2;
+	// How many moves below the old root the new position is looked for
+	private static final int MAX_REUSE_PLIES = 6;
+	// Results are counted in half wins, so that a draw counts as one
+	private static final int WIN = 2;
+	private static final int DRAW = 1;
+
+	private static final int UNEXPANDED = 0;
+	private static final int EXPANDING = 1;
+	private static final int EXPANDED = 2;
+	// A node whose children did not fit in the pool
+	private static final int LEAF = 3;
+
+	/**
+	 * The arrays holding the nodes of a tree. Node 0 is the root.
+	 */
+	private static class NodePool {
+		private final int[] firstChild;
+		private final byte[] childCount;
+		// The pit moved to reach the node
+		private final byte[] pit;
+		private final AtomicIntegerArray visits;
+		// The half wins of the player who moved into the node
+		private final AtomicIntegerArray halfWins;
+		private final AtomicIntegerArray state;
+		private final AtomicInteger size = new AtomicInteger();
+
+		NodePool(int capacity) {
+			firstChild = new int[capacity];
+			childCount = new byte[capacity];
+			pit = new byte[capacity];
+			visits = new AtomicIntegerArray(capacity);
+			halfWins = new AtomicIntegerArray(capacity);
+			state = new AtomicIntegerArray(capacity);
+		}
+
+		/**
+		 * Reserves a block of empty nodes.
+		 * 
+		 * @return the index of the first node, or -1 if the pool is full
+		 */
+		int allocate(int count) {
+			int first = size.getAndAdd(count);
+			if (first + count > pit.length) {
+				return -1;
+			}
+			for (int node = first; node < first + count; node++) {
+				visits.set(node, 0);
+				halfWins.set(node, 0);
+				state.set(node, UNEXPANDED);
+			}
+			return first;
+		}
+
+		int capacity() {
+			return pit.length;
+		}
+	}
+
+	private NodePool pool;
+	private NodePool sparePool;
+	private final int[] reuseQueue;
+	private final Board rootBoard = new Board();
+	private boolean hasTree;
+	private final int threadCount;
+	private final ExecutorService helperThreads;
+	private long timeLimitMillis;
+	private int maxPlayouts;
+	private final long seed;
+	private int moveNumber;
+	private final AtomicInteger playouts = new AtomicInteger();
+	private volatile long deadline;
+	private volatile boolean stopRequested;
+	private long nodesSearched;
+	private int reusedVisits;
+
+	/**
+	 * Creates a Monte Carlo opponent that uses one thread for each processor.
+	 * 
+	 * @param timeLimitMillis the time allowed for each move in milliseconds
+	 */
+	public MonteCarloEngine(long timeLimitMillis) {
+		this(Runtime.getRuntime().availableProcessors(), timeLimitMillis, 0, DEFAULT_NODE_CAPACITY,
+				System.nanoTime());
+	}
+
+	/**
+	 * Creates a Monte Carlo opponent.
+	 * 
+	 * @param threadCount     the number of threads to search with, including the
+	 *                        thread that asks for the move
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 * @param maxPlayouts     the most games played out for each move, or 0 for no
+	 *                        limit
+	 * @param nodeCapacity    the most nodes the tree may hold
+	 * @param seed            the seed of the random playouts
+	 * @throws IllegalArgumentException if there is neither a time limit nor a
+	 *                                  playout limit
+	 */
+	public MonteCarloEngine(int threadCount, long timeLimitMillis, int maxPlayouts, int nodeCapacity, long seed) {
+		if (timeLimitMillis <= 0 && maxPlayouts <= 0) {
+			throw new IllegalArgumentException("Monte Carlo search needs a time limit or a playout limit");
+		}
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("Monte Carlo search needs at least one thread: " + threadCount);
+		}
+		this.threadCount = threadCount;
+		this.timeLimitMillis = timeLimitMillis;
+		this.maxPlayouts = maxPlayouts;
+		this.seed = seed;
+		pool = new NodePool(nodeCapacity);
+		sparePool = new NodePool(nodeCapacity);
+		reuseQueue = new int[nodeCapacity];
+		helperThreads = threadCount == 1 ? null : Executors.newFixedThreadPool(threadCount - 1, runnable -> {
+			Thread thread = new Thread(runnable, "Monte Carlo helper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public int chooseMove(Board position) {
+		if (position.isGameOver()) {
+			throw new IllegalStateException("Player " + (position.getCurrentPlayer() + 1) + " has no legal move");
+		}
+		long startTime = System.nanoTime();
+		deadline = timeLimitMillis == 0 ? Long.MAX_VALUE : startTime + timeLimitMillis * 1000000;
+		reusedVisits = hasTree ? reuseSubtree(position) : 0;
+		if (reusedVisits == 0) {
+			pool.size.set(0);
+			pool.allocate(1);
+			rootBoard.copyFrom(position);
+		}
+		hasTree = true;
+		expand(pool, 0, rootBoard);
+		playouts.set(0);
+		moveNumber++;
+
+		Future<?>[] helpers = new Future<?>[threadCount - 1];
+		for (int i = 0; i < helpers.length; i++) {
+			long helperSeed = seed + moveNumber * 31L + i + 1;
+			helpers[i] = helperThreads.submit(() -> runPlayouts(helperSeed));
+		}
+		runPlayouts(seed + moveNumber * 31L);
+		for (Future<?> helper : helpers) {
+			waitFor(helper);
+		}
+		nodesSearched = playouts.get();
+
+		// The most visited move is played
+		NodePool tree = pool;
+		int first = tree.firstChild[0];
+		int bestChild = first;
+		for (int child = first + 1; child < first + tree.childCount[0]; child++) {
+			if (tree.visits.get(child) > tree.visits.get(bestChild)) {
+				bestChild = child;
+			}
+		}
+		return tree.pit[bestChild];
+	}
+
+	/**
+	 * Walks the tree and plays out games until the time or playout limit is
+	 * reached, or the search is asked to stop.
+	 */
+	private void runPlayouts(long threadSeed) {
+		SplittableRandom rand = new SplittableRandom(threadSeed);
+		Board board = new Board();
+		int[] path = new int[MAX_PATH_LENGTH];
+		int[] movers = new int[path.length];
+		NodePool tree = pool;
+		while (!stopRequested && System.nanoTime() < deadline) {
+			if (maxPlayouts == 0) {
+				playouts.incrementAndGet();
+			} else if (playouts.getAndIncrement() >= maxPlayouts) {
+				playouts.decrementAndGet();
+				return;
+			}
+			playOnce(tree, board, rand, path, movers);
+		}
+	}
+
+	/**
+	 * Makes one walk down the tree, one random playout from where it stops, and
+	 * records the result along the walk.
+	 */
+	private void playOnce(NodePool tree, Board board, SplittableRandom rand, int[] path, int[] movers) {
+		board.copyFrom(rootBoard);
+		tree.visits.incrementAndGet(0);
+		int node = 0;
+		int length = 0;
+
+		// Selection and expansion
+		while (!board.isGameOver() && length < path.length) {
+			int nodeState = tree.state.get(node);
+			if (nodeState == UNEXPANDED) {
+				if (tree.visits.get(node) < EXPAND_VISITS || !tree.state.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+					break;
+				}
+				expand(tree, node, board);
+			} else if (nodeState != EXPANDED) {
+				break;
+			}
+			int child = selectChild(tree, node);
+			movers[length] = board.getCurrentPlayer();
+			path[length++] = child;
+			// The visit counts as a loss until the result is added
+			tree.visits.incrementAndGet(child);
+			board.makeMove(tree.pit[child]);
+			node = child;
+		}
+
+		// Random playout
+		while (!board.isGameOver()) {
+			int player = board.getCurrentPlayer();
+			int firstPit = player * (Board.PITS_PER_SIDE + 1);
+			int pit;
+			do {
+				pit = firstPit + rand.nextInt(Board.PITS_PER_SIDE);
+			} while (board.getSeeds(pit) == 0);
+			board.makeMove(pit);
+		}
+		int margin = board.getStoreCount(0) + board.getSideCount(0) - board.getStoreCount(1) - board.getSideCount(1);
+
+		// Backpropagation
+		for (int i = 0; i < length; i++) {
+			int playerMargin = movers[i] == 0 ? margin : -margin;
+			int result = playerMargin > 0 ? WIN : playerMargin == 0 ? DRAW : 0;
+			if (result != 0) {
+				tree.halfWins.addAndGet(path[i], result);
+			}
+		}
+	}
+
+	/**
+	 * Adds a child for every legal move of a node. If the pool is full the node is
+	 * left as a leaf and only ever played out from.
+	 */
+	private static void expand(NodePool tree, int node, Board board) {
+		if (tree.state.get(node) == EXPANDED) {
+			return;
+		}
+		int player = board.getCurrentPlayer();
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int moveCount = 0;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (board.getSeeds(pit) != 0) {
+				moveCount++;
+			}
+		}
+		int first = tree.allocate(moveCount);
+		if (first < 0) {
+			tree.state.set(node, LEAF);
+			return;
+		}
+		int child = first;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (board.getSeeds(pit) != 0) {
+				tree.pit[child++] = (byte) pit;
+			}
+		}
+		tree.firstChild[node] = first;
+		tree.childCount[node] = (byte) moveCount;
+		tree.state.set(node, EXPANDED);
+	}
+
+	/**
+	 * Chooses the child with the highest UCT value. A child that has never been
+	 * visited is always chosen first.
+	 */
+	private static int selectChild(NodePool tree, int node) {
+		int first = tree.firstChild[node];
+		double logVisits = Math.log(Math.max(1, tree.visits.get(node)));
+		int bestChild = first;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int child = first; child < first + tree.childCount[node]; child++) {
+			int visits = tree.visits.get(child);
+			if (visits == 0) {
+				return child;
+			}
+			double value = tree.halfWins.get(child) / (double) (WIN * visits)
+					+ EXPLORATION * Math.sqrt(logVisits / visits);
+			if (value > bestValue) {
+				bestValue = value;
+				bestChild = child;
+			}
+		}
+		return bestChild;
+	}
+
+	/**
+	 * Looks for the new position a few moves below the root of the last tree. If
+	 * it is found, its subtree is copied to the front of the spare pool, which
+	 * becomes the tree for this move.
+	 * 
+	 * @return the number of visits carried over to the new root, or 0 if the
+	 *         position was not found
+	 */
+	private int reuseSubtree(Board position) {
+		int newRoot = findPosition(0, rootBoard, position, MAX_REUSE_PLIES);
+		if (newRoot < 0) {
+			return 0;
+		}
+
+		// Copy breadth first, so that the children of every node stay together
+		NodePool from = pool;
+		NodePool to = sparePool;
+		reuseQueue[0] = newRoot;
+		int count = 1;
+		for (int node = 0; node < count; node++) {
+			int oldNode = reuseQueue[node];
+			to.pit[node] = from.pit[oldNode];
+			to.visits.set(node, from.visits.get(oldNode));
+			to.halfWins.set(node, from.halfWins.get(oldNode));
+			if (from.state.get(oldNode) == EXPANDED) {
+				int oldFirst = from.firstChild[oldNode];
+				to.firstChild[node] = count;
+				to.childCount[node] = from.childCount[oldNode];
+				for (int i = 0; i < from.childCount[oldNode]; i++) {
+					reuseQueue[count++] = oldFirst + i;
+				}
+				to.state.set(node, EXPANDED);
+			} else {
+				to.state.set(node, UNEXPANDED);
+			}
+		}
+		to.size.set(count);
+		sparePool = from;
+		pool = to;
+		rootBoard.copyFrom(position);
+		return to.visits.get(0);
+	}
+
+	/**
+	 * Searches the expanded part of the tree below a node, to the given number of
+	 * moves, for a position.
+	 * 
+	 * @return the index of the node holding the position, or -1 if it was not found
+	 */
+	private int findPosition(int node, Board board, Board position, int plies) {
+		if (samePosition(board, position)) {
+			return node;
+		}
+		if (plies == 0 || pool.state.get(node) != EXPANDED) {
+			return -1;
+		}
+		int first = pool.firstChild[node];
+		for (int child = first; child < first + pool.childCount[node]; child++) {
+			Board next = new Board(board);
+			next.makeMove(pool.pit[child]);
+			int found = findPosition(child, next, position, plies - 1);
+			if (found >= 0) {
+				return found;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks whether two boards hold the same position.
+	 */
+	private static boolean samePosition(Board a, Board b) {
+		if (a.getCurrentPlayer() != b.getCurrentPlayer()) {
+			return false;
+		}
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			if (a.getSeeds(slot) != b.getSeeds(slot)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Waits for a helper to finish its playouts.
+	 */
+	private static void waitFor(Future<?> helper) {
+		try {
+			helper.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a helper search", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A helper search failed", e.getCause());
+		}
+	}
+
+	/**
+	 * Forgets the tree, so that the next move is searched from scratch.
+	 */
+	public void clearTree() {
+		hasTree = false;
+	}
+
+	/**
+	 * Returns the number of games played out while choosing the last move.
+	 * 
+	 * @return the number of playouts for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the number of visits to the root that were carried over from the
+	 * tree of the previous move.
+	 * 
+	 * @return the visits reused for the last move, or 0 if the tree was rebuilt
+	 */
+	public int getReusedVisits() {
+		return reusedVisits;
+	}
+
+	/**
+	 * Returns the number of nodes in the tree.
+	 * 
+	 * @return the number of nodes used in the pool
+	 */
+	public int getTreeSize() {
+		return Math.min(pool.size.get(), pool.capacity());
+	}
+
+	/**
+	 * Asks a search running on another thread to stop after the playouts under
+	 * way, and to play the most visited move so far. The request stays in place
+	 * until {@link #clearStop()} is called.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Withdraws a request to stop, so that the next move is searched normally.
+	 */
+	public void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * Returns the time allowed for each move.
+	 * 
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	public long getTimeLimit() {
+		return timeLimitMillis;
+	}
+
+	/**
+	 * Sets the time allowed for each move.
+	 * 
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 * @throws IllegalArgumentException if the time limit is negative, or is 0
+	 *                                  when there is no playout limit
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+		}
+		if (timeLimitMillis == 0 && maxPlayouts <= 0) {
+			throw new IllegalArgumentException("Monte Carlo search needs a time limit or a playout limit");
+		}
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Stops the helper threads. The engine cannot be used afterwards.
+	 */
+	public void shutdown() {
+		if (helperThreads != null) {
+			helperThreads.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,111 @@
+package mancala;
+
+import java.util.Arrays;
+
+/**
+ * Describes how good one legal move is in a position, as worked out by
+ * {@link AlphaBetaEngine#analyze(Board)}: the move's score, the margin the
+ * player making it can expect to finish the game with, and the line of play
+ * expected to follow it. The scores of all the moves in a position are exact
+ * for the same search depth, so they can be compared with each other, for
+ * instance to show a player how much a move they are thinking of loses.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class MoveAnalysis {
+	private final int pit;
+	private final int score;
+	private final int depth;
+	private final boolean exact;
+	private final int[] principalVariation;
+
+	/**
+	 * Creates the analysis of a move.
+	 *
+	 * @param pit                the index of the pit moved
+	 * @param score              the score of the move for the player making it, in
+	 *                           quarter marbles
+	 * @param depth              the number of moves looked ahead
+	 * @param exact              true if every line after the move was searched to
+	 *                           the end of the game
+	 * @param principalVariation the moves expected to be played, starting with this
+	 *                           move
+	 */
+	public MoveAnalysis(int pit, int score, int depth, boolean exact, int[] principalVariation) {
+		this.pit = pit;
+		this.score = score;
+		this.depth = depth;
+		this.exact = exact;
+		this.principalVariation = principalVariation.clone();
+	}
+
+	/**
+	 * Returns the index of the pit moved.
+	 *
+	 * @return the index of the pit
+	 */
+	public int getPit() {
+		return pit;
+	}
+
+	/**
+	 * Returns the score of the move, from the point of view of the player making
+	 * it.
+	 *
+	 * @return the score in quarter marbles
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the number of marbles the player making the move is expected to
+	 * finish the game ahead by. The margin is exact if {@link #isExact()} is
+	 * true, and estimated from the position at the end of the search otherwise.
+	 *
+	 * @return the expected final difference between the stores, negative if the
+	 *         player is expected to lose
+	 */
+	public int getExpectedFinalMargin() {
+		return Evaluation.toMarbles(score);
+	}
+
+	/**
+	 * Returns the number of moves looked ahead to score the move.
+	 *
+	 * @return the search depth
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns whether every line after the move was searched to the end of the
+	 * game, so that its score is the result of perfect play.
+	 *
+	 * @return true if the score is exact, false if it is an estimate
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Returns the moves expected to be played after this one, starting with this
+	 * move. Extra turns mean the same player can make several moves in a row.
+	 *
+	 * @return the pit indices of the principal variation
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	/**
+	 * To string method for the analysis of a move.
+	 *
+	 * @return String describing the move
+	 */
+	public String toString() {
+		return "pit " + pit + ": score " + score + ", " + (exact ? "final margin " : "expected final margin ")
+				+ getExpectedFinalMargin() + " at depth " + depth + ", pv " + Arrays.toString(principalVariation);
+	}
+}
@@ -0,0 +1,116 @@
+package mancala;
+
+/**
+ * Describes the outcome of a single turn played with {@link Game#apply(int)}.
+ * The result is worked out once, while the move is made, so the graphics and
+ * the computer opponent do not have to recalculate where the move ended or
+ * whether it captured.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class MoveResult {
+	private final int selectedPitIndex;
+	private final int player;
+	private final int endPitIndex;
+	private final int capturedCount;
+	private final boolean extraTurn;
+	private final boolean gameOver;
+
+	/**
+	 * Creates the result of a turn.
+	 *
+	 * @param selectedPitIndex index of the pit that was moved
+	 * @param player           the player who moved (0 or 1)
+	 * @param endPitIndex      index of the pit or store the last marble landed in
+	 * @param capturedCount    the number of marbles taken from the opponent's pit,
+	 *                         or 0 if there was no capture
+	 * @param extraTurn        true if the player who moved gets another move
+	 * @param gameOver         true if the move left one side of the board empty
+	 */
+	public MoveResult(int selectedPitIndex, int player, int endPitIndex, int capturedCount, boolean extraTurn,
+			boolean gameOver) {
+		this.selectedPitIndex = selectedPitIndex;
+		this.player = player;
+		this.endPitIndex = endPitIndex;
+		this.capturedCount = capturedCount;
+		this.extraTurn = extraTurn;
+		this.gameOver = gameOver;
+	}
+
+	/**
+	 * Returns the index of the pit that was moved.
+	 *
+	 * @return the index of the pit that was moved
+	 */
+	public int getSelectedPitIndex() {
+		return selectedPitIndex;
+	}
+
+	/**
+	 * Returns the player who made the move.
+	 *
+	 * @return 0 for Player 1, 1 for Player 2
+	 */
+	public int getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Returns the index of the pit or store the last marble landed in.
+	 *
+	 * @return the index of the slot the move ended in
+	 */
+	public int getEndPitIndex() {
+		return endPitIndex;
+	}
+
+	/**
+	 * Returns the number of marbles taken from the opponent's pit. The capturing
+	 * marble itself is not included.
+	 *
+	 * @return the number of captured marbles, or 0 if there was no capture
+	 */
+	public int getCapturedCount() {
+		return capturedCount;
+	}
+
+	/**
+	 * Returns whether the move made a capture.
+	 *
+	 * @return true if the move captured, false otherwise
+	 */
+	public boolean isCapture() {
+		return capturedCount != 0;
+	}
+
+	/**
+	 * Returns whether the player who moved gets another move.
+	 *
+	 * @return true if the last marble landed in the player's store, false
+	 *         otherwise
+	 */
+	public boolean isExtraTurn() {
+		return extraTurn;
+	}
+
+	/**
+	 * Returns whether the move ended the game.
+	 *
+	 * @return true if either side of the board is empty after the move, false
+	 *         otherwise
+	 */
+	public boolean isGameOver() {
+		return gameOver;
+	}
+
+	/**
+	 * To string method for the move result.
+	 *
+	 * @return String describing the move and its outcome
+	 */
+	public String toString() {
+		return "Player " + (player + 1) + " moved pit " + selectedPitIndex + " to " + endPitIndex
+				+ (isCapture() ? ", capturing " + capturedCount : "") + (extraTurn ? ", extra turn" : "")
+				+ (gameOver ? ", game over" : "");
+	}
+}
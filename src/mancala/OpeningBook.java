@@ -0,0 +1,189 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * A book of the best moves in the positions near the start of the game, made by
+ * {@link OpeningBookBuilder}, so the computer opponent does not have to search
+ * them again in every game.
+ * 
+ * <p>
+ * The book is a file holding an open-addressing hash table of 16-byte entries,
+ * mapped into memory with {@link MappedFile} so that it needs no heap and opens
+ * in milliseconds. Each entry is the {@link PackedBoard} key of a position,
+ * followed by the best move, the depth it was searched to and its score. A
+ * position is looked up by hashing its key to a slot and reading on until the
+ * key or an empty slot is found, which takes a microsecond or so. Positions
+ * with more seeds than a packed key can hold are never in the book.
+ * 
+ * <p>
+ * The file starts with the magic number, the format version and the number of
+ * slots, padded to 16 bytes.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class OpeningBook {
+	public static final int MAGIC = 0x4D4B424B;
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 16;
+	public static final long MISS = -1;
+
+	private static final int ENTRY_BYTES = 16;
+	private static final long EMPTY_KEY = 0;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+	private static final int DEPTH_SHIFT = 8;
+	private static final int SCORE_SHIFT = 32;
+
+	private final ByteBuffer[] entries;
+	private final int slotBits;
+
+	private OpeningBook(ByteBuffer[] entries, int slotBits) {
+		this.entries = entries;
+		this.slotBits = slotBits;
+	}
+
+	/**
+	 * Opens a book file by mapping it into memory.
+	 * 
+	 * @param file the book file
+	 * @return the opening book
+	 * @throws IOException if the file cannot be read or is not an opening book
+	 */
+	public static OpeningBook open(File file) throws IOException {
+		ByteBuffer header = MappedFile.readHeader(file, HEADER_BYTES);
+		if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+			throw new IOException("Not a Mancala opening book");
+		}
+		long slotCount = header.getLong();
+		if (Long.bitCount(slotCount) != 1) {
+			throw new IOException("The slot count of an opening book must be a power of two: " + slotCount);
+		}
+		return new OpeningBook(MappedFile.map(file, HEADER_BYTES, slotCount * ENTRY_BYTES),
+				Long.numberOfTrailingZeros(slotCount));
+	}
+
+	/**
+	 * Writes a book file holding the given positions.
+	 * 
+	 * @param positions the entry of each position, made with
+	 *                  {@link #createEntry(int, int, int)}, by packed key
+	 * @param file      the file to be written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Map<Long, Long> positions, File file) throws IOException {
+		// The table is kept at most half full, so that lookups stop quickly
+		int slotBits = Math.max(1, 64 - Long.numberOfLeadingZeros(positions.size() * 2L));
+		long slotCount = 1L << slotBits;
+		long[] keys = new long[(int) slotCount];
+		long[] values = new long[(int) slotCount];
+		for (Map.Entry<Long, Long> position : positions.entrySet()) {
+			int slot = getSlot(position.getKey(), slotBits);
+			while (keys[slot] != EMPTY_KEY) {
+				slot = (slot + 1) & (int) (slotCount - 1);
+			}
+			keys[slot] = position.getKey();
+			values[slot] = position.getValue();
+		}
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(slotCount);
+			for (int slot = 0; slot < slotCount; slot++) {
+				out.writeLong(keys[slot]);
+				out.writeLong(values[slot]);
+			}
+		}
+	}
+
+	/**
+	 * Looks up a position in the book.
+	 * 
+	 * @param board the position to be looked up
+	 * @return the entry of the position, or {@link #MISS} if it is not in the book
+	 */
+	public long lookup(Board board) {
+		if (board.getSideCount(0) + board.getSideCount(1) + board.getStoreCount(0)
+				+ board.getStoreCount(1) > PackedBoard.MAX_SEEDS) {
+			return MISS;
+		}
+		long key = PackedBoard.pack(board);
+		long mask = (1L << slotBits) - 1;
+		for (long slot = getSlot(key, slotBits);; slot = (slot + 1) & mask) {
+			long slotKey = MappedFile.getLong(entries, slot * ENTRY_BYTES);
+			if (slotKey == key) {
+				return MappedFile.getLong(entries, slot * ENTRY_BYTES + Long.BYTES);
+			}
+			if (slotKey == EMPTY_KEY) {
+				return MISS;
+			}
+		}
+	}
+
+	/**
+	 * Returns the book move of a position.
+	 * 
+	 * @param board the position to be looked up
+	 * @return the index of the pit to be moved, or -1 if the position is not in
+	 *         the book
+	 */
+	public int getMove(Board board) {
+		long entry = lookup(board);
+		return entry == MISS ? -1 : getMove(entry);
+	}
+
+	/**
+	 * Packs a book move and its search result into an entry.
+	 * 
+	 * @param move  the index of the pit to be moved
+	 * @param depth the depth the position was searched to
+	 * @param score the score of the move for the player to move
+	 * @return the entry
+	 */
+	public static long createEntry(int move, int depth, int score) {
+		return (long) score << SCORE_SHIFT | depth << DEPTH_SHIFT | move;
+	}
+
+	/**
+	 * Returns the move of an entry.
+	 * 
+	 * @param entry an entry returned by {@link #lookup(Board)}
+	 * @return the index of the pit to be moved
+	 */
+	public static int getMove(long entry) {
+		return (int) entry & 0xFF;
+	}
+
+	/**
+	 * Returns the depth the position of an entry was searched to.
+	 * 
+	 * @param entry an entry returned by {@link #lookup(Board)}
+	 * @return the search depth
+	 */
+	public static int getDepth(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * Returns the score of the move of an entry, from the point of view of the
+	 * player to move.
+	 * 
+	 * @param entry an entry returned by {@link #lookup(Board)}
+	 * @return the score in quarter marbles
+	 */
+	public static int getScore(long entry) {
+		return (int) (entry >> SCORE_SHIFT);
+	}
+
+	/**
+	 * Returns the slot a key is first looked for in.
+	 */
+	private static int getSlot(long key, int slotBits) {
+		return (int) ((key * HASH_MULTIPLIER) >>> (64 - slotBits));
+	}
+}
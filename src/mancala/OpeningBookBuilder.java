@@ -0,0 +1,256 @@
+package mancala;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds an {@link OpeningBook} by searching every position that can be reached
+ * within a few moves of the standard start, with four seeds in each pit, to a
+ * fixed depth.
+ * 
+ * <p>
+ * The positions are searched in parallel, each thread with its own
+ * {@link AlphaBetaEngine} and transposition table. Every result is appended to
+ * a progress file next to the book as soon as it is found, so a build that is
+ * stopped part way picks up where it left off when it is run again, and a
+ * later build with more moves only searches the positions it adds. Results
+ * searched to a lower depth than asked for are searched again.
+ * 
+ * <p>
+ * Running this program writes a book file. The number of moves from the
+ * start, the search depth and the file name can be given as the program
+ * arguments.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class OpeningBookBuilder {
+	public static final int DEFAULT_PLIES = 6;
+	public static final int DEFAULT_DEPTH = 16;
+	public static final String DEFAULT_FILE_NAME = "book/mancala.book";
+	public static final String PROGRESS_SUFFIX = ".progress";
+
+	private static final int PROGRESS_MAGIC = 0x4D4B4250;
+	private static final int PROGRESS_HEADER_BYTES = 4;
+	private static final int RECORD_BYTES = 16;
+	private static final int SEEDS_PER_PIT = 4;
+	private static final int TABLE_MEGABYTES = 64;
+
+	private final int plies;
+	private final int depth;
+	private final int threadCount;
+	private int positionsSearched;
+	private int positionsReused;
+
+	/**
+	 * Creates a builder.
+	 * 
+	 * @param plies       the number of moves from the start whose positions are
+	 *                    put in the book, counting each extra turn as a move
+	 * @param depth       the depth each position is searched to
+	 * @param threadCount the number of positions searched at once
+	 */
+	public OpeningBookBuilder(int plies, int depth, int threadCount) {
+		if (depth < 1 || depth > AlphaBetaEngine.MAX_PLY) {
+			throw new IllegalArgumentException("The search depth must be between 1 and " + AlphaBetaEngine.MAX_PLY);
+		}
+		this.plies = plies;
+		this.depth = depth;
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Searches the positions not yet in the progress file, then writes the book.
+	 * 
+	 * @param bookFile the book file to be written; the progress file is kept next
+	 *                 to it with {@link #PROGRESS_SUFFIX} added to its name
+	 * @return the opening book
+	 * @throws IOException if the progress file or the book cannot be read or
+	 *                     written
+	 */
+	public OpeningBook build(File bookFile) throws IOException {
+		File progressFile = new File(bookFile.getPath() + PROGRESS_SUFFIX);
+		Map<Long, Long> results = readProgress(progressFile);
+		List<Long> remaining = new ArrayList<>();
+		Map<Long, Long> book = new HashMap<>();
+		for (long key : listPositions(plies)) {
+			Long entry = results.get(key);
+			if (entry != null && OpeningBook.getDepth(entry) >= depth) {
+				book.put(key, entry);
+			} else {
+				remaining.add(key);
+			}
+		}
+		positionsReused = book.size();
+		positionsSearched = remaining.size();
+
+		try (DataOutputStream progress = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(progressFile, true)))) {
+			ThreadLocal<AlphaBetaEngine> engines = ThreadLocal
+					.withInitial(() -> new AlphaBetaEngine(depth, 0, new TranspositionTable(TABLE_MEGABYTES)));
+			ExecutorService threads = Executors.newFixedThreadPool(threadCount);
+			try {
+				List<Future<?>> searches = new ArrayList<>();
+				for (long key : remaining) {
+					searches.add(threads.submit(() -> {
+						AlphaBetaEngine engine = engines.get();
+						Board board = new Board();
+						PackedBoard.unpack(key, board);
+						int move = engine.chooseMove(board);
+						long entry = OpeningBook.createEntry(move, depth, engine.getBestScore());
+						synchronized (progress) {
+							progress.writeLong(key);
+							progress.writeLong(entry);
+							progress.flush();
+							book.put(key, entry);
+						}
+						return null;
+					}));
+				}
+				for (Future<?> search : searches) {
+					search.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("The book build was interrupted", e);
+			} catch (ExecutionException e) {
+				throw new IOException("A book position could not be searched", e.getCause());
+			} finally {
+				threads.shutdownNow();
+			}
+		}
+
+		OpeningBook.write(book, bookFile);
+		return OpeningBook.open(bookFile);
+	}
+
+	/**
+	 * Returns the number of positions searched by the last build.
+	 * 
+	 * @return the number of positions searched
+	 */
+	public int getPositionsSearched() {
+		return positionsSearched;
+	}
+
+	/**
+	 * Returns the number of positions the last build took from the progress file
+	 * instead of searching them.
+	 * 
+	 * @return the number of positions reused
+	 */
+	public int getPositionsReused() {
+		return positionsReused;
+	}
+
+	/**
+	 * Lists the packed keys of the unfinished positions that can be reached within
+	 * the given number of moves of the start, nearest first.
+	 * 
+	 * @param plies the number of moves from the start
+	 * @return the packed keys of the positions
+	 */
+	static Set<Long> listPositions(int plies) {
+		Board board = new Board();
+		board.reset(SEEDS_PER_PIT);
+		Set<Long> positions = new LinkedHashSet<>();
+		positions.add(PackedBoard.pack(board));
+		List<Long> frontier = new ArrayList<>(positions);
+		for (int ply = 0; ply < plies; ply++) {
+			List<Long> next = new ArrayList<>();
+			for (long key : frontier) {
+				PackedBoard.unpack(key, board);
+				int firstPit = board.getCurrentPlayer() * (Board.PITS_PER_SIDE + 1);
+				for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+					if (!board.isLegal(pit)) {
+						continue;
+					}
+					long undo = board.makeMove(pit);
+					long childKey = PackedBoard.pack(board);
+					if (!board.isGameOver() && positions.add(childKey)) {
+						next.add(childKey);
+					}
+					board.unmakeMove(undo);
+				}
+			}
+			frontier = next;
+		}
+		return positions;
+	}
+
+	/**
+	 * Reads the results of earlier builds from a progress file, creating the file
+	 * if it does not exist. A record left half written by a build that was stopped
+	 * is cut off, so that new records follow on from the last whole one.
+	 */
+	private static Map<Long, Long> readProgress(File progressFile) throws IOException {
+		Map<Long, Long> results = new HashMap<>();
+		if (!progressFile.exists()) {
+			if (progressFile.getParentFile() != null) {
+				progressFile.getParentFile().mkdirs();
+			}
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(progressFile))) {
+				out.writeInt(PROGRESS_MAGIC);
+			}
+			return results;
+		}
+		long length = PROGRESS_HEADER_BYTES;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(progressFile)))) {
+			if (in.readInt() != PROGRESS_MAGIC) {
+				throw new IOException("Not a Mancala opening book progress file: " + progressFile);
+			}
+			while (true) {
+				long key = in.readLong();
+				long entry = in.readLong();
+				Long previous = results.get(key);
+				if (previous == null || OpeningBook.getDepth(entry) >= OpeningBook.getDepth(previous)) {
+					results.put(key, entry);
+				}
+				length += RECORD_BYTES;
+			}
+		} catch (EOFException e) {
+			// The end of the last whole record has been reached
+		}
+		try (RandomAccessFile file = new RandomAccessFile(progressFile, "rw")) {
+			file.setLength(length);
+		}
+		return results;
+	}
+
+	/**
+	 * Executes when this program is ran. Builds an opening book and writes it to
+	 * a file.
+	 * 
+	 * @param args the number of moves from the start, the search depth and the
+	 *             file name, all optional
+	 * @throws IOException if the book cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int plies = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PLIES;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH;
+		String fileName = args.length > 2 ? args[2] : DEFAULT_FILE_NAME;
+		long startTime = System.nanoTime();
+		OpeningBookBuilder builder = new OpeningBookBuilder(plies, depth, Runtime.getRuntime().availableProcessors());
+		builder.build(new File(fileName));
+		System.out.println("Searched " + builder.getPositionsSearched() + " positions to depth " + depth + " and reused "
+				+ builder.getPositionsReused() + " in " + (System.nanoTime() - startTime) / 1000000
+				+ " ms, written to " + fileName);
+	}
+}
@@ -0,0 +1,64 @@
+package mancala;
+
+/**
+ * A computer opponent that plays the moves of an {@link OpeningBook} while the
+ * game is still in the book, and leaves every other position to another
+ * engine.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class OpeningBookEngine extends FallbackEngine {
+	private final OpeningBook book;
+	private boolean lastMoveFromBook;
+
+	/**
+	 * Creates an opponent that looks positions up in an opening book before
+	 * searching them.
+	 * 
+	 * @param book     the opening book
+	 * @param fallback the engine used for positions outside the book
+	 */
+	public OpeningBookEngine(OpeningBook book, SearchEngine fallback) {
+		super(fallback);
+		this.book = book;
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board, from the
+	 * book if the position is in it.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	public int chooseMove(Board position) {
+		stopPondering();
+		long startTime = System.nanoTime();
+		long entry = book.lookup(position);
+		int move = entry == OpeningBook.MISS ? -1 : OpeningBook.getMove(entry);
+		lastMoveFromBook = move >= 0 && position.isLegal(move);
+		if (lastMoveFromBook) {
+			recordMove(1, new SearchStats(1, 1, 0, 0, System.nanoTime() - startTime, OpeningBook.getScore(entry),
+					new int[] { move }));
+			return move;
+		}
+		return chooseFallbackMove(position);
+	}
+
+	/**
+	 * Returns whether the last move was found in the book.
+	 * 
+	 * @return true if the last move came from the book, false if it was searched
+	 */
+	public boolean isLastMoveFromBook() {
+		return lastMoveFromBook;
+	}
+
+	/**
+	 * Returns the opening book.
+	 * 
+	 * @return the opening book
+	 */
+	public OpeningBook getOpeningBook() {
+		return book;
+	}
+}
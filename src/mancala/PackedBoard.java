@@ -0,0 +1,196 @@
+package mancala;
+
+/**
+ * Encodes a Mancala position into a single long so that positions can be
+ * compared, hashed and stored without walking the pits of the board.
+ *
+ * <p>
+ * Bit 0 of the key holds the player to move. Starting at bit 1, every slot of
+ * the board is written as a run of one-bits, one for each seed, and the runs of
+ * slots 0 to 12 are each followed by a zero-bit separating them from the next
+ * slot. The 13 separators and the side bit leave room for 50 seeds, which
+ * covers the standard game of 6 pits with 4 seeds each. Two positions are equal
+ * exactly when their keys are equal.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class PackedBoard {
+	public static final int MAX_SEEDS = 64 - Board.SLOT_COUNT;
+
+	private PackedBoard() {
+	}
+
+	/**
+	 * Encodes the seed counts and current player of a board into a key.
+	 *
+	 * @param board the board to be encoded
+	 * @return the packed key of the position
+	 * @throws IllegalArgumentException if the board holds more than
+	 *                                  {@link #MAX_SEEDS} seeds
+	 */
+	public static long pack(Board board) {
+		long key = board.getCurrentPlayer();
+		int shift = 1;
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			int seedCount = board.getSeeds(slot);
+			if (shift + seedCount > 64 - (Board.SLOT_COUNT - 1 - slot)) {
+				throw new IllegalArgumentException("A board with more than " + MAX_SEEDS + " seeds cannot be packed");
+			}
+			key |= ones(seedCount) << shift;
+			shift += seedCount + 1;
+		}
+		return key;
+	}
+
+	/**
+	 * Encodes the position of a game into a key.
+	 *
+	 * @param game the game to be encoded
+	 * @return the packed key of the game's position
+	 */
+	public static long pack(Game game) {
+		return pack(game.getBoard());
+	}
+
+	/**
+	 * Decodes a key into the seed counts and current player of a board.
+	 *
+	 * @param key   the packed key of a position
+	 * @param board the board to be overwritten with the position
+	 */
+	public static void unpack(long key, Board board) {
+		board.setCurrentPlayer((int) (key & 1));
+		long bits = key >>> 1;
+		for (int slot = 0; slot < Board.SLOT_COUNT - 1; slot++) {
+			int seedCount = Long.numberOfTrailingZeros(~bits);
+			board.setSeeds(slot, seedCount);
+			bits >>>= seedCount + 1;
+		}
+		board.setSeeds(Board.SLOT_COUNT - 1, Long.bitCount(bits));
+	}
+
+	/**
+	 * Decodes a key into the position of a game. The marbles of the game's pits
+	 * follow the new counts the next time they are read.
+	 *
+	 * @param key  the packed key of a position
+	 * @param game the game to be overwritten with the position
+	 */
+	public static void unpack(long key, Game game) {
+		unpack(key, game.getBoard());
+	}
+
+	/**
+	 * Returns the player to move in a packed position.
+	 *
+	 * @param key the packed key of a position
+	 * @return 0 for Player 1, 1 for Player 2
+	 */
+	public static int getCurrentPlayer(long key) {
+		return (int) (key & 1);
+	}
+
+	/**
+	 * Returns the number of seeds in one slot of a packed position.
+	 *
+	 * @param key  the packed key of a position
+	 * @param slot index of the pit or store
+	 * @return the number of seeds in the slot
+	 */
+	public static int getSeeds(long key, int slot) {
+		long bits = key >>> 1;
+		for (int i = 0; i < slot; i++) {
+			bits >>>= Long.numberOfTrailingZeros(~bits) + 1;
+		}
+		if (slot == Board.SLOT_COUNT - 1) {
+			return Long.bitCount(bits);
+		}
+		return Long.numberOfTrailingZeros(~bits);
+	}
+
+	/**
+	 * Plays a move directly on a packed position. The seeds of the selected pit
+	 * are sown, a capture is made if the last seed lands in an empty pit of the
+	 * moving player, and the turn passes to the other player unless the last seed
+	 * lands in the moving player's store. The legality of the move is not checked
+	 * and the end-of-game sweep is not made.
+	 *
+	 * @param key              the packed key of a position
+	 * @param selectedPitIndex index of the pit to be sown
+	 * @return the packed key of the position after the move
+	 */
+	public static long applyMove(long key, int selectedPitIndex) {
+		int player = getCurrentPlayer(key);
+		int seedCount = getSeeds(key, selectedPitIndex);
+		int laps = seedCount / (Board.SLOT_COUNT - 1);
+		int remainder = seedCount % (Board.SLOT_COUNT - 1);
+
+		// The slot reached by the last seed, and whether it captures the pit across
+		int endPitIndex = Board.getEndSlot(selectedPitIndex, seedCount, player);
+		int captured = 0;
+		if (Board.getSide(endPitIndex) == player) {
+			int oppositePitIndex = Board.getOppositePit(endPitIndex);
+			int endCount = sownSeeds(key, endPitIndex, selectedPitIndex, player, laps, remainder);
+			int oppositeCount = sownSeeds(key, oppositePitIndex, selectedPitIndex, player, laps, remainder);
+			if (endCount == 1 && oppositeCount != 0) {
+				captured = oppositeCount;
+			}
+		}
+
+		// Rewrite every run of seeds with its count after the move
+		long bits = key >>> 1;
+		long packed = 0;
+		int shift = 1;
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			int oldCount = Long.numberOfTrailingZeros(~bits);
+			bits >>>= oldCount + 1;
+			int newCount = slot == selectedPitIndex ? 0 : oldCount;
+			newCount += sownInto(slot, selectedPitIndex, player, laps, remainder);
+			if (captured != 0) {
+				if (slot == endPitIndex || slot == Board.getOppositePit(endPitIndex)) {
+					newCount = 0;
+				} else if (slot == Board.getStore(player)) {
+					newCount += captured + 1;
+				}
+			}
+			packed |= ones(newCount) << shift;
+			shift += newCount + 1;
+		}
+
+		int nextPlayer = endPitIndex == Board.getStore(player) ? player : 1 - player;
+		return packed | nextPlayer;
+	}
+
+	/**
+	 * Returns the number of seeds a slot holds after a move has been sown, before
+	 * any capture.
+	 */
+	private static int sownSeeds(long key, int slot, int selectedPitIndex, int player, int laps, int remainder) {
+		int oldCount = slot == selectedPitIndex ? 0 : getSeeds(key, slot);
+		return oldCount + sownInto(slot, selectedPitIndex, player, laps, remainder);
+	}
+
+	/**
+	 * Returns the number of seeds a move drops into a slot. Every one of the 13
+	 * slots the moving player can reach receives one seed per full lap, and the
+	 * first {@code remainder} slots after the selected pit receive one more.
+	 */
+	private static int sownInto(int slot, int selectedPitIndex, int player, int laps, int remainder) {
+		int skippedStore = Board.getStore(1 - player);
+		if (slot == skippedStore) {
+			return 0;
+		}
+		int distance = (slot - selectedPitIndex + Board.SLOT_COUNT - 1) % Board.SLOT_COUNT + 1;
+		if ((skippedStore - selectedPitIndex + Board.SLOT_COUNT) % Board.SLOT_COUNT < distance) {
+			distance--;
+		}
+		return distance <= remainder ? laps + 1 : laps;
+	}
+
+	/**
+	 * Returns a long with the given number of low one-bits.
+	 */
+	private static long ones(int count) {
+		return count == 0 ? 0 : -1L >>> (64 - count);
+	}
+}
@@ -0,0 +1,368 @@
+package mancala;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A computer opponent that shares an alpha-beta search between several threads
+ * of a {@link ForkJoinPool}, splitting the work with the Young Brothers Wait
+ * rule.
+ * 
+ * <p>
+ * At the root and the first few plies below it, the first (eldest) move of a
+ * position is searched on its own to find a good bound. Its younger brothers
+ * are then searched in parallel, all with that bound, and the best of them is
+ * kept. Deeper in the tree each thread runs an ordinary serial
+ * {@link AlphaBetaEngine} search. Moves are ordered the same way as in the
+ * serial search and ties go to the move earliest in that order, so at a fixed
+ * depth this engine always chooses the same move as an {@link AlphaBetaEngine}
+ * without a transposition table.
+ * 
+ * <p>
+ * Searching the younger brothers with the eldest brother's bound, rather than
+ * the best bound found so far, means some positions are searched that the
+ * serial search would have cut off. That is the price of keeping every thread
+ * busy.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class ParallelSearchEngine implements SearchEngine {
+	public static final int DEFAULT_SPLIT_PLIES = 2;
+	// Positions searched fewer than this many moves deep are not worth splitting
+	private static final int MIN_SPLIT_DEPTH = 4;
+
+	private final ForkJoinPool pool;
+	// Every thread's serial engine, so that a request to stop reaches them all
+	private final Queue<AlphaBetaEngine> allSearchers = new ConcurrentLinkedQueue<>();
+	private final ThreadLocal<AlphaBetaEngine> searchers = ThreadLocal.withInitial(() -> {
+		AlphaBetaEngine searcher = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, 0, null);
+		allSearchers.add(searcher);
+		return searcher;
+	});
+	private final LongAdder nodes = new LongAdder();
+	private final int splitPlies;
+	private int depth;
+	private long timeLimitMillis;
+	private long deadline;
+	private volatile boolean timeUp;
+	private volatile boolean stopRequested;
+	private volatile boolean reachedHorizon;
+	private long nodesSearched;
+	private int bestScore;
+	private int completedDepth;
+
+	/**
+	 * Creates a parallel opponent that uses one thread for each processor and
+	 * searches {@link AlphaBetaEngine#DEFAULT_DEPTH} moves ahead.
+	 */
+	public ParallelSearchEngine() {
+		this(Runtime.getRuntime().availableProcessors(), AlphaBetaEngine.DEFAULT_DEPTH, 0);
+	}
+
+	/**
+	 * Creates a parallel opponent that searches as deep as it can within a time
+	 * limit, up to the given number of moves ahead.
+	 * 
+	 * @param threadCount     the number of threads to search with
+	 * @param depth           the most moves to look ahead, from 1 to
+	 *                        {@link AlphaBetaEngine#MAX_PLY}
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 */
+	public ParallelSearchEngine(int threadCount, int depth, long timeLimitMillis) {
+		this(threadCount, depth, timeLimitMillis, DEFAULT_SPLIT_PLIES);
+	}
+
+	/**
+	 * Creates a parallel opponent that splits the search at the given number of
+	 * plies below the root.
+	 * 
+	 * @param threadCount     the number of threads to search with
+	 * @param depth           the most moves to look ahead, from 1 to
+	 *                        {@link AlphaBetaEngine#MAX_PLY}
+	 * @param timeLimitMillis the time allowed for each move in milliseconds, or 0
+	 *                        for no limit
+	 * @param splitPlies      the number of plies, starting at the root, whose
+	 *                        younger brothers are searched in parallel
+	 */
+	public ParallelSearchEngine(int threadCount, int depth, long timeLimitMillis, int splitPlies) {
+		if (depth < 1 || depth > AlphaBetaEngine.MAX_PLY) {
+			throw new IllegalArgumentException(
+					"Search depth must be between 1 and " + AlphaBetaEngine.MAX_PLY + ": " + depth);
+		}
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+		}
+		this.pool = new ForkJoinPool(threadCount);
+		this.depth = depth;
+		this.timeLimitMillis = timeLimitMillis;
+		this.splitPlies = Math.max(1, splitPlies);
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board. The
+	 * position is searched by iterative deepening, as in
+	 * {@link AlphaBetaEngine#chooseMove(Board)}, with every depth shared between
+	 * the threads of the pool.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public int chooseMove(Board position) {
+		long startTime = System.nanoTime();
+		Board root = new Board(position);
+		int[] rootMoves = new int[Board.PITS_PER_SIDE];
+		int moveCount = AlphaBetaEngine.generateMoves(root, rootMoves, new int[Board.PITS_PER_SIDE]);
+		if (moveCount == 0) {
+			throw new IllegalStateException("Player " + (root.getCurrentPlayer() + 1) + " has no legal move");
+		}
+		nodes.reset();
+		completedDepth = 0;
+		timeUp = false;
+
+		int bestMove = rootMoves[0];
+		for (int iterationDepth = 1; iterationDepth <= depth; iterationDepth++) {
+			// The first depth is always completed
+			deadline = completedDepth == 0 || timeLimitMillis == 0 ? Long.MAX_VALUE
+					: startTime + timeLimitMillis * 1000000;
+			reachedHorizon = false;
+			SplitTask task = new SplitTask(root, rootMoves, moveCount, iterationDepth, -Evaluation.MAX_SCORE,
+					Evaluation.MAX_SCORE, 0);
+			int score = pool.invoke(task);
+			if (timeUp) {
+				break;
+			}
+			bestMove = task.bestMove;
+			bestScore = score;
+			completedDepth = iterationDepth;
+			if (!reachedHorizon) {
+				break;
+			}
+			AlphaBetaEngine.moveToFront(rootMoves, bestMove);
+		}
+		nodesSearched = nodes.sum();
+		return bestMove;
+	}
+
+	/**
+	 * Searches one position, splitting its moves between threads if it is close
+	 * enough to the root and far enough from the search depth, or handing it to a
+	 * serial search otherwise.
+	 */
+	@SuppressWarnings("serial")
+	private class SplitTask extends RecursiveTask<Integer> {
+		private final Board board;
+		private final int[] moveList;
+		private int moveCount;
+		private final int depth;
+		private int alpha;
+		private final int beta;
+		private final int ply;
+		// Whether the player who moved into this position is still the one to move
+		private boolean sameMover;
+		private int bestMove;
+
+		/**
+		 * Creates a task for a position whose moves have not been generated yet.
+		 */
+		SplitTask(Board board, int depth, int alpha, int beta, int ply) {
+			this(board, null, -1, depth, alpha, beta, ply);
+		}
+
+		/**
+		 * Creates a task for a position, searching its moves in the given order.
+		 */
+		SplitTask(Board board, int[] moveList, int moveCount, int depth, int alpha, int beta, int ply) {
+			this.board = board;
+			this.moveList = moveList;
+			this.moveCount = moveCount;
+			this.depth = depth;
+			this.alpha = alpha;
+			this.beta = beta;
+			this.ply = ply;
+		}
+
+		protected Integer compute() {
+			// The root is always split, so that its best move is known
+			if (ply > 0 && (board.isGameOver() || depth < MIN_SPLIT_DEPTH || ply >= splitPlies)) {
+				return searchSerially();
+			}
+			if (stopRequested) {
+				timeUp = true;
+				return alpha;
+			}
+			nodes.increment();
+			int[] moves = moveList;
+			if (moves == null) {
+				moves = new int[Board.PITS_PER_SIDE];
+				moveCount = AlphaBetaEngine.generateMoves(board, moves, new int[Board.PITS_PER_SIDE]);
+			}
+
+			// The eldest brother is searched first, on its own
+			SplitTask eldest = createChild(moves[0], alpha, beta);
+			int best = eldest.getScore(eldest.compute());
+			bestMove = moves[0];
+			if (best > alpha) {
+				alpha = best;
+			}
+			if (alpha >= beta || timeUp) {
+				return best;
+			}
+
+			// The younger brothers are then searched in parallel with the eldest's bound
+			SplitTask[] younger = new SplitTask[moveCount - 1];
+			for (int i = 1; i < moveCount; i++) {
+				younger[i - 1] = createChild(moves[i], alpha, beta);
+			}
+			invokeAll(younger);
+			for (int i = 1; i < moveCount; i++) {
+				int score = younger[i - 1].getScore(younger[i - 1].join());
+				if (score > best) {
+					best = score;
+					bestMove = moves[i];
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Creates the task for the position after a move, flipping the window if
+		 * the turn passes to the other player.
+		 */
+		private SplitTask createChild(int pit, int alpha, int beta) {
+			Board child = new Board(board);
+			child.makeMove(pit);
+			SplitTask task;
+			if (child.getCurrentPlayer() == board.getCurrentPlayer()) {
+				task = new SplitTask(child, depth - 1, alpha, beta, ply + 1);
+				task.sameMover = true;
+			} else {
+				task = new SplitTask(child, depth - 1, -beta, -alpha, ply + 1);
+			}
+			return task;
+		}
+
+		/**
+		 * Converts the result of this task into a score for the player who moved
+		 * into it.
+		 */
+		private int getScore(int result) {
+			return sameMover ? result : -result;
+		}
+
+		/**
+		 * Searches the position with this thread's serial engine.
+		 */
+		private int searchSerially() {
+			AlphaBetaEngine searcher = searchers.get();
+			// Checked once the searcher is known to requestStop, so a request is never missed
+			if (stopRequested) {
+				timeUp = true;
+				return alpha;
+			}
+			int score = searcher.searchSubtree(board, depth, alpha, beta, deadline);
+			nodes.add(searcher.getNodesSearched());
+			if (searcher.isTimeUp()) {
+				timeUp = true;
+			}
+			if (searcher.isHorizonReached()) {
+				reachedHorizon = true;
+			}
+			return score;
+		}
+	}
+
+	/**
+	 * Returns the number of positions searched while choosing the last move, over
+	 * all threads.
+	 * 
+	 * @return the number of nodes searched for the last move
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the score of the last move chosen, from the point of view of the
+	 * player who was to move.
+	 * 
+	 * @return the score of the last move in quarter marbles
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/**
+	 * Returns the deepest search that was completed for the last move.
+	 * 
+	 * @return the number of moves looked ahead for the last move
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns the number of threads the search is shared between.
+	 * 
+	 * @return the parallelism of the thread pool
+	 */
+	public int getThreadCount() {
+		return pool.getParallelism();
+	}
+
+	/**
+	 * Asks a search running on another thread to stop at the next clock check of
+	 * every thread, and to play the best move of the last depth completed. The
+	 * request stays in place until {@link #clearStop()} is called.
+	 */
+	public void requestStop() {
+		stopRequested = true;
+		for (AlphaBetaEngine searcher : allSearchers) {
+			searcher.requestStop();
+		}
+	}
+
+	/**
+	 * Withdraws a request to stop, so that the next move is searched normally.
+	 */
+	public void clearStop() {
+		stopRequested = false;
+		for (AlphaBetaEngine searcher : allSearchers) {
+			searcher.clearStop();
+		}
+	}
+
+	/**
+	 * Returns the time allowed for each move.
+	 * 
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	public long getTimeLimit() {
+		return timeLimitMillis;
+	}
+
+	/**
+	 * Sets the time allowed for each move. The first depth is always completed, so
+	 * a move can take longer than the limit.
+	 * 
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 * @throws IllegalArgumentException if the time limit is negative
+	 */
+	public void setTimeLimit(long timeLimitMillis) {
+		if (timeLimitMillis < 0) {
+			throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+		}
+		this.timeLimitMillis = timeLimitMillis;
+	}
+
+	/**
+	 * Stops the threads of the pool. The engine cannot be used afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+}
@@ -1,10 +1,9 @@
 package mancala;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 
-import javax.swing.JButton;
-
 /**
  * Contains all information necessary for a pit in the Mancala game, including
  * the marbles contained within and the side of the board it lies on.
@@ -12,11 +11,20 @@ import javax.swing.JButton;
  * @author Ryan Johnson, Hank Rugg
  */
 public class Pit {
-	private List<Marble> marblesContained = new ArrayList<>();
+	/*
+	 * The number of marbles held by the pit is stored in a slot of the game's
+	 * board, which the rules engine works on directly. The Marble objects are only
+	 * a view of that count for the graphics, so the marble list is topped up or
+	 * trimmed whenever it has fallen out of step with the count, and any change
+	 * made through the marble list is written back to the count. No Marble
+	 * objects are created until the marble list is first asked for.
+	 */
+	private final List<Marble> marblesContained = new ArrayList<>();
+	private final List<Marble> marbleView = new MarbleList();
+	private final Board board;
+	private final int slot;
 	private int boardSide;
 
-	private RoundButton pitBoundary;
-
 	/**
 	 * Creates a new pit for the Mancala game.
 	 * 
@@ -26,10 +34,8 @@ public class Pit {
 	 *                    (0 for Player 1, 1 for Player 2)
 	 */
 	public Pit(int marbleCount, int boardSide) {
-		this.boardSide = boardSide;
-		for (int i = 0; i < marbleCount; i++) {
-			addMarble(new Marble());
-		}
+		this(new Board(), 0, boardSide);
+		board.setSeeds(slot, marbleCount);
 	}
 
 	/**
@@ -40,20 +46,30 @@ public class Pit {
 	 *                  for Player 1, 1 for Player 2)
 	 */
 	public Pit(int boardSide) {
-		this.boardSide = boardSide;
+		this(4, boardSide);
+	}
 
-		for (int i = 0; i < 4; i++) {
-			addMarble(new Marble());
-		}
+	/**
+	 * Creates a new pit whose marble count is kept in a slot of a board.
+	 * 
+	 * @param board     the board holding the pit's marble count
+	 * @param slot      the index of the pit on the board
+	 * @param boardSide an integer detailing the side of the board the pit is on (0
+	 *                  for Player 1, 1 for Player 2, -1 for a store)
+	 */
+	Pit(Board board, int slot, int boardSide) {
+		this.board = board;
+		this.slot = slot;
+		this.boardSide = boardSide;
 	}
-	
+
 	/**
 	 * Adds a Marble object to the pit.
 	 * 
 	 * @param marble the Marble object to be added to the list
 	 */
 	public void addMarble(Marble marble) {
-		marblesContained.add(marble);
+		getMarbleList().add(marble);
 	}
 
 	/**
@@ -62,7 +78,7 @@ public class Pit {
 	 * @param marble the specified marble object to be removed from the pit
 	 */
 	public void removeMarble(Marble marble) {
-		marblesContained.remove(marble);
+		getMarbleList().remove(marble);
 	}
 
 	/**
@@ -94,28 +110,53 @@ public class Pit {
 	 * @return List<Marble> returns a list of all Marble objects held by the pit
 	 */
 	public List<Marble> getMarbleList() {
-		return marblesContained;
+		syncMarbles();
+		return marbleView;
+	}
+
+	/**
+	 * Returns the number of marbles held by the pit without touching the Marble
+	 * objects.
+	 * 
+	 * @return int returns the number of marbles held by the pit
+	 */
+	public int getMarbleCount() {
+		return board.getSeeds(slot);
+	}
+
+	/**
+	 * Adds or removes Marble objects until the marble list matches the pit's
+	 * marble count.
+	 */
+	void syncMarbles() {
+		while (marblesContained.size() < board.getSeeds(slot)) {
+			marblesContained.add(new Marble());
+		}
+		while (marblesContained.size() > board.getSeeds(slot)) {
+			marblesContained.remove(marblesContained.size() - 1);
+		}
 	}
 
 	/**
-	 * Sets a JButton to the pit.
+	 * Removes the first Marble object from the pit without changing the pit's
+	 * marble count. This is used by the game to carry the marble images along
+	 * with a move the board has already made.
 	 * 
-	 * @param pitBoundary sets a JButton to the pit
+	 * @return the removed marble
 	 */
-	public void setBoundary(RoundButton pitBoundary) {
-		/*
-		 * The marbles within the pit are drawn within the coordinates of this JButton.
-		 */
-		this.pitBoundary = pitBoundary;
+	Marble takeMarble() {
+		return marblesContained.remove(0);
 	}
 
 	/**
-	 * Returns the JButton belonging to the pit.
+	 * Adds a Marble object to the pit without changing the pit's marble count.
+	 * This is used by the game to carry the marble images along with a move the
+	 * board has already made.
 	 * 
-	 * @return JButton returns the JButton belonging to the pit
+	 * @param marble the Marble object to be placed into the pit
 	 */
-	public JButton getBoundary() {
-		return pitBoundary;
+	void placeMarble(Marble marble) {
+		marblesContained.add(marble);
 	}
 
 	/**
@@ -124,7 +165,50 @@ public class Pit {
 	 * @return String of the amount of marbles in the pit
 	 */
 	public String toString() {
-		return String.valueOf(marblesContained.size());
+		return String.valueOf(getMarbleCount());
+	}
+
+	/**
+	 * The list of marbles handed out by the pit. Adding or removing a marble
+	 * through this list updates the pit's marble count.
+	 */
+	private class MarbleList extends AbstractList<Marble> {
+		@Override
+		public Marble get(int index) {
+			return marblesContained.get(index);
+		}
+
+		@Override
+		public int size() {
+			return marblesContained.size();
+		}
+
+		@Override
+		public Marble set(int index, Marble marble) {
+			return marblesContained.set(index, marble);
+		}
+
+		@Override
+		public void add(int index, Marble marble) {
+			marblesContained.add(index, marble);
+			modCount++;
+			board.setSeeds(slot, marblesContained.size());
+		}
+
+		@Override
+		public Marble remove(int index) {
+			Marble marble = marblesContained.remove(index);
+			modCount++;
+			board.setSeeds(slot, marblesContained.size());
+			return marble;
+		}
+
+		@Override
+		public void clear() {
+			marblesContained.clear();
+			modCount++;
+			board.setSeeds(slot, 0);
+		}
 	}
 
 }
\ No newline at end of file
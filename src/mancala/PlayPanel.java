@@ -7,14 +7,19 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
@@ -23,6 +28,7 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.SimpleAttributeSet;
@@ -51,7 +57,33 @@ public class PlayPanel extends JPanel {
 	 * the game. Once there are no marbles left on either side of the board, the
 	 * program is changed to an EndGame JPanel.
 	 */
+	private static final int MAX_PLACEMENT_TRIES = 200;
+	// The time allowed for analysing every move of a position, in milliseconds
+	private static final long ANALYSIS_TIME_LIMIT = 500;
+	// The most hints remembered before the cache is emptied
+	private static final int MAX_CACHED_HINTS = 4096;
+	// Where the highlight is drawn over each pit, indexed by pit; the stores are never highlighted
+	private static final int[] HINT_X = { 112, 197, 279, 411, 495, 580, 0, 569, 488, 408, 279, 198, 116, 0 };
+	private static final int[] HINT_Y = { 282, 282, 281, 282, 279, 278, 0, 168, 169, 171, 173, 173, 173, 0 };
+
 	private Game game = new Game();
+	private Difficulty difficulty = Difficulty.DEFAULT;
+	private SearchEngine opponentEngine = createOpponentEngine(difficulty);
+	private final AlphaBetaEngine analysisEngine = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, ANALYSIS_TIME_LIMIT);
+	// Only used on the hint thread; shares the analysis engine's table, so neither waits for the other
+	private final AlphaBetaEngine hintEngine = new AlphaBetaEngine(AlphaBetaEngine.MAX_PLY, ANALYSIS_TIME_LIMIT,
+			analysisEngine.getTranspositionTable());
+	private final ExecutorService hintThread = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "Hint search");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+	// Only read and written on the Event Dispatch Thread
+	private final Map<Long, Integer> hintCache = new HashMap<>();
+	// Written on the Event Dispatch Thread, and read on the hint thread to skip stale requests
+	private volatile int hintGeneration;
+	private int hintPit = -1;
 	private final Random rand = new Random();
 	private final JTextPane instructionsPane = new JTextPane();
 	private final Style style = instructionsPane.addStyle("", null);
@@ -62,10 +94,10 @@ public class PlayPanel extends JPanel {
 	private JLabel marbleCountLabel = new JLabel();
 
 	private List<RoundButton> pitButtons = new ArrayList<>();
+	private final RoundButton[] pitBoundaries = new RoundButton[Board.SLOT_COUNT];
 	
 	private boolean singlePlayer = false;
-	private boolean highlightHintsP1 = true;
-	private boolean highlightHintsP2 = false;
+	private boolean hintsEnabled = true;
 
 	private JButton homeButton = new JButton();
 	private JButton helpButton = new JButton();
@@ -283,25 +315,13 @@ public class PlayPanel extends JPanel {
 		// Draw every marble on the board
 		for (Pit pit : game.getStoreList()) {
 			for (Marble marble : pit.getMarbleList()) {
-				g.drawImage(marble.getMarbleImage(), marble.getXcord(), marble.getYcord(), null);
+				g.drawImage(MarbleSprites.getImage(marble.getColor()), marble.getXcord(), marble.getYcord(), null);
 			}
 		}
 
-		if (highlightHintsP1) {
-			g.drawImage(resizedHighlightImage, 112, 282, null);
-			g.drawImage(resizedHighlightImage, 197, 282, null);
-			g.drawImage(resizedHighlightImage, 279, 281, null);
-			g.drawImage(resizedHighlightImage, 411, 282, null);
-			g.drawImage(resizedHighlightImage, 495, 279, null);
-			g.drawImage(resizedHighlightImage, 580, 278, null);
-		} else if (highlightHintsP2) {
-			g.drawImage(resizedHighlightImage, 116, 173, null);
-			g.drawImage(resizedHighlightImage, 198, 173, null);
-			g.drawImage(resizedHighlightImage, 279, 173, null);
-			g.drawImage(resizedHighlightImage, 408, 171, null);
-			g.drawImage(resizedHighlightImage, 488, 169, null);
-			g.drawImage(resizedHighlightImage, 569, 168, null);
-
+		// Highlights the best pit for the human player, once the hint search has found it
+		if (hintsEnabled && hintPit >= 0) {
+			g.drawImage(resizedHighlightImage, HINT_X[hintPit], HINT_Y[hintPit], null);
 		}
 	}
 
@@ -316,22 +336,22 @@ public class PlayPanel extends JPanel {
 		 * choose which pit to move by clicking on the desired pit. The coordinates for
 		 * each marble is set to a random value within its starting pit.
 		 */
+		opponentEngine.stopPondering();
 		game.resetBoard();
+		clearHint();
 		pitButtons.clear();
 		changeInstructionText(false);
 		// Assign coordinates to each of the pits for showing the marble images in the
 		// correct pits
-		List<Pit> storeList = game.getStoreList();
 		// Adds a circular button as a boundary for each pit, becoming an area to place
 		// all marbles images in the given pit. This also allows the user to click on
 		// individual pits.
-		for (int i = 0; i < storeList.size(); i++) {
-			Pit currentPit = storeList.get(i);
+		for (int i = 0; i < Board.SLOT_COUNT; i++) {
 			if (i < 3) {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds(125 + (84 * i), 295 - (i), 73, 74);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setBorderPainted(false);
 				addButtonListeners(pitButton);
 				pitButton.setFocusable(false);
@@ -341,7 +361,7 @@ public class PlayPanel extends JPanel {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds(427 + (83 * (i - 3)), 300 - (2 * i), 71, 70);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setBorderPainted(false);
 				addButtonListeners(pitButton);
 				pitButton.setFocusable(false);
@@ -353,7 +373,7 @@ public class PlayPanel extends JPanel {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds(666, 180, 84, 180);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setOpaque(false);
 				pitButton.setContentAreaFilled(false);
 				pitButton.setBorderPainted(false);
@@ -363,7 +383,7 @@ public class PlayPanel extends JPanel {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds((584 - (-81 * (7 - i))), 183 + (-2 * (7 - i)), 69, 67);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setBorderPainted(false);
 				if (!singlePlayer) {
 					addButtonListeners(pitButton);
@@ -376,7 +396,7 @@ public class PlayPanel extends JPanel {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds(294 - (-81 * (10 - i)), 185 + (-1 * (10 - i)), 70, 70);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setBorderPainted(false);
 				if (!singlePlayer) {
 					addButtonListeners(pitButton);
@@ -388,7 +408,7 @@ public class PlayPanel extends JPanel {
 				RoundButton pitButton = new RoundButton(i);
 				pitButton.setText(" ");
 				pitButton.setBounds(43, 186, 75, 183);
-				currentPit.setBoundary(pitButton);
+				pitBoundaries[i] = pitButton;
 				pitButton.setOpaque(false);
 				pitButton.setContentAreaFilled(false);
 				pitButton.setBorderPainted(false);
@@ -400,8 +420,8 @@ public class PlayPanel extends JPanel {
 		// Setting the initial coordinates of each marble.
 		// The coordinates of the marbles are random within the coordinates of their
 		// initial pit
-		for (Pit pit : game.getStoreList()) {
-			makeMarblesVisible(pit);
+		for (int i = 0; i < Board.SLOT_COUNT; i++) {
+			makeMarblesVisible(i);
 		}
 
 		repaint();
@@ -410,30 +430,53 @@ public class PlayPanel extends JPanel {
 	/**
 	 * Makes sure that all marbles are visible at the start of the game.
 	 * 
-	 * @param pit the pit that is must have all marbles visible
+	 * @param pitIndex the index of the pit that must have all marbles visible
 	 */
-	private void makeMarblesVisible(Pit pit) {
-		int marbleCount = 0;
-		for (Marble marble : pit.getMarbleList()) {
-			marbleCount++;
-			boolean hidden = true;
-			if (marbleCount == 4) {
-				marbleCount = 4;
-			}
-			while (hidden) {
-				marble.setXcord(rand.nextInt(((pit.getBoundary().getBounds().x + pit.getBoundary().getBounds().width
-						- marble.getMarbleImage().getWidth(getFocusCycleRootAncestor()) - 5))
-						- (pit.getBoundary().getBounds().x + 5)) + (pit.getBoundary().getBounds().x + 5));
-				marble.setYcord(rand.nextInt(((pit.getBoundary().getBounds().y + pit.getBoundary().getBounds().height
-						- marble.getMarbleImage().getHeight(getFocusCycleRootAncestor()) - 5))
-						- (pit.getBoundary().getBounds().y + 5)) + (pit.getBoundary().getBounds().y + 5));
-				if (isMarbleVisible(pit, marble)) {
-					hidden = false;
+	private void makeMarblesVisible(int pitIndex) {
+		for (Marble marble : game.getStoreList().get(pitIndex).getMarbleList()) {
+			placeMarble(pitIndex, marble);
+		}
+	}
+
+	/**
+	 * Moves the image of every marble that has been carried into a new pit by the
+	 * last move to a random visible spot within that pit. Marbles that are already
+	 * drawn within their pit are left where they are.
+	 */
+	private void placeMarbles() {
+		for (int i = 0; i < Board.SLOT_COUNT; i++) {
+			Rectangle bounds = pitBoundaries[i].getBounds();
+			for (Marble marble : game.getStoreList().get(i).getMarbleList()) {
+				if (!bounds.contains(marble.getXcord(), marble.getYcord())) {
+					placeMarble(i, marble);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Sets the coordinates of a marble to a random spot within its pit where it is
+	 * not hidden by the other marbles of the pit. If no such spot is found after
+	 * a number of tries, the last spot tried is kept.
+	 * 
+	 * @param pitIndex the index of the pit the marble is drawn in
+	 * @param marble   the Marble object being placed
+	 */
+	private void placeMarble(int pitIndex, Marble marble) {
+		Pit pit = game.getStoreList().get(pitIndex);
+		Rectangle bounds = pitBoundaries[pitIndex].getBounds();
+		Image marbleImage = MarbleSprites.getImage(marble.getColor());
+		int tries = 0;
+		do {
+			marble.setXcord(rand.nextInt(((bounds.x + bounds.width
+					- marbleImage.getWidth(getFocusCycleRootAncestor()) - 5))
+					- (bounds.x + 5)) + (bounds.x + 5));
+			marble.setYcord(rand.nextInt(((bounds.y + bounds.height
+					- marbleImage.getHeight(getFocusCycleRootAncestor()) - 5))
+					- (bounds.y + 5)) + (bounds.y + 5));
+		} while (!isMarbleVisible(pit, marble) && ++tries < MAX_PLACEMENT_TRIES);
+	}
+
 	/**
 	 * Determines whether a given marble is visible in a given pit.
 	 * 
@@ -457,151 +500,6 @@ public class PlayPanel extends JPanel {
 		return true;
 	}
 
-	/**
-	 * Moves all of the marble images in a specified pit to the appropriate pits.
-	 * 
-	 * @param selectedPitIndex an integer designating the index (within the game's
-	 *                         list of pits) of the pit to be moved
-	 * @return the boolean true if the marbles images from the designated pit are
-	 *         moved successfully; false if there are no marbles in the pit to move
-	 */
-	public int movePit(int selectedPitIndex, boolean simulated) {
-		/*
-		 * All marble images from a single pit are placed into the appropriate pits. If
-		 * the designated pit is moved successfully, the boolean true is returned. If
-		 * there are no marbles in the pit to move, false is returned
-		 */
-
-		Pit selectedPit = game.getStoreList().get(selectedPitIndex);
-		int marbleCount = selectedPit.getMarbleList().size();
-		// Each marble within the selected pit is moved to the subsequent pits
-		int nextPitIndex = selectedPitIndex;
-
-		for (int i = 0; i < marbleCount; i++) {
-			Marble marble = selectedPit.getMarbleList().get(i);
-			nextPitIndex = nextPitIndex + 1;
-
-			// If Player 1 is moving, the marbles skip past Player 2's store
-			if ((nextPitIndex == 13 && game.getCurrentPlayer() == 0)
-					|| (nextPitIndex == 6 && game.getCurrentPlayer() == 1)) {
-				nextPitIndex = nextPitIndex + 1;
-			}
-
-			// If the player selects a pit that places marbles beyond the end of the marble
-			// list, the marble will be placed into the pits at the beginning of the list
-			if (nextPitIndex > 13) {
-				nextPitIndex = Math.abs(13 - (nextPitIndex - 1));
-			}
-			if (!simulated) {
-				// Changes the coordinates of each marble in the selected pit to a random
-				// coordinate within the pit the marble is being moved to
-				Pit nextPit = game.getStoreList().get(nextPitIndex);
-
-				do {
-					marble.setXcord(rand
-							.nextInt(((nextPit.getBoundary().getBounds().x + nextPit.getBoundary().getBounds().width
-									- marble.getMarbleImage().getWidth(getFocusCycleRootAncestor()) - 5))
-									- (nextPit.getBoundary().getBounds().x + 5))
-							+ (nextPit.getBoundary().getBounds().x + 5));
-					marble.setYcord(rand
-							.nextInt(((nextPit.getBoundary().getBounds().y + nextPit.getBoundary().getBounds().height
-									- marble.getMarbleImage().getHeight(getFocusCycleRootAncestor()) - 5))
-									- (nextPit.getBoundary().getBounds().y + 5))
-							+ (nextPit.getBoundary().getBounds().y + 5));
-				} while (!isMarbleVisible(nextPit, marble));
-			}
-		}
-
-		int endPitIndex = nextPitIndex;
-
-		if (!simulated) {
-			game.move(selectedPitIndex);
-		}
-
-		return endPitIndex;
-	}
-
-	/**
-	 * Sets the coordinates of all marbles in a captured pit to random coordinates
-	 * within the capturing player's store.
-	 * 
-	 * @param selectedPitIndex an integer designating the index (within the game's
-	 *                         list of pits) of the pit to be moved
-	 */
-	public void moveCapturedMarbles(int endPitIndex) {
-		/*
-		 * A pit is considered captured if it lies across from an empty pit that
-		 * receives the last marble on a player's side of the board. All marbles from
-		 * this captured pit are moved into the store of the player that most recently
-		 * moved.
-		 */
-
-		// Determine which store the marbles should be moved into
-		Pit store = game.getStoreList().get(6);
-		if (game.getCurrentPlayer() == 1) {
-			store = game.getStoreList().get(13);
-		}
-
-		// Move the marbles in the captured pit into the player's store
-		Pit capturedPit = game.getStoreList().get(Math.abs(12 - endPitIndex));
-
-		for (Marble marble : capturedPit.getMarbleList()) {
-			marble.setXcord(rand.nextInt(((store.getBoundary().getBounds().x + store.getBoundary().getBounds().width
-					- marble.getMarbleImage().getWidth(getFocusCycleRootAncestor()) - 5))
-					- (store.getBoundary().getBounds().x + 5)) + (store.getBoundary().getBounds().x + 5));
-			marble.setYcord(rand.nextInt(((store.getBoundary().getBounds().y + store.getBoundary().getBounds().height
-					- marble.getMarbleImage().getHeight(getFocusCycleRootAncestor()) - 5))
-					- (store.getBoundary().getBounds().y + 5)) + (store.getBoundary().getBounds().y + 5));
-		}
-
-		// Move the marble in the capturing pit into the player's store
-		Marble capturingMarble = game.getStoreList().get(endPitIndex).getMarbleList().get(0);
-		capturingMarble
-				.setXcord(rand.nextInt(((store.getBoundary().getBounds().x + store.getBoundary().getBounds().width
-						- capturingMarble.getMarbleImage().getWidth(getFocusCycleRootAncestor()) - 5))
-						- (store.getBoundary().getBounds().x + 5)) + (store.getBoundary().getBounds().x + 5));
-		capturingMarble
-				.setYcord(rand.nextInt(((store.getBoundary().getBounds().y + store.getBoundary().getBounds().height
-						- capturingMarble.getMarbleImage().getHeight(getFocusCycleRootAncestor()) - 5))
-						- (store.getBoundary().getBounds().y + 5)) + (store.getBoundary().getBounds().y + 5));
-
-		repaint();
-	}
-
-	/**
-	 * Sets the coordinates of the marble in a capturing pit to random coordinates
-	 * within the capturing player's store.
-	 * 
-	 * @param selectedPitIndex an integer designating the index (within the game's
-	 *                         list of pits) of the pit to be moved
-	 */
-	public void moveCapturingMarbles(int endPitIndex) {
-		/*
-		 * A capturing pit is an empty pit on a player's side of the board that receives
-		 * the last marble after moving a pit and also lies across from a pit containing
-		 * marbles.
-		 */
-
-		Pit currentPit = game.getStoreList().get(endPitIndex);
-
-		// Determine which store the marbles should be moved into
-		Pit store = game.getStoreList().get(6);
-		if (game.getCurrentPlayer() == 1) {
-			store = game.getStoreList().get(13);
-		}
-
-		// Move the marbles across from the captured pit into the player's store
-		Marble capturingMarble = currentPit.getMarbleList().get(0);
-		capturingMarble
-				.setXcord(rand.nextInt(((store.getBoundary().getBounds().x + store.getBoundary().getBounds().width
-						- capturingMarble.getMarbleImage().getWidth(getFocusCycleRootAncestor()) - 5))
-						- (store.getBoundary().getBounds().x + 5)) + (store.getBoundary().getBounds().x + 5));
-		capturingMarble
-				.setYcord(rand.nextInt(((store.getBoundary().getBounds().y + store.getBoundary().getBounds().height
-						- capturingMarble.getMarbleImage().getHeight(getFocusCycleRootAncestor()) - 5))
-						- (store.getBoundary().getBounds().y + 5)) + (store.getBoundary().getBounds().y + 5));
-	}
-
 	/**
 	 * Changes the text in the instruction area, alerting the player to whose turn
 	 * it is and whether they receive an extra move, as well as the score labels for
@@ -619,103 +517,126 @@ public class PlayPanel extends JPanel {
 				instructionsPane.setText("Player 2 gets an extra move!\nChoose a pit.");
 			}
 		} else if (game.getCurrentPlayer() == 1) {
-			if (highlightHintsP2) {
-				instructionsPane.setText("Player 2, it's your turn.\nSelect one of your highlighted pits.");
+			if (hintsEnabled && !singlePlayer) {
+				instructionsPane.setText("Player 2, it's your turn.\nTry the highlighted pit.");
 			} else {
 				instructionsPane.setText("Player 2, it's your turn.\nChoose a pit.");
 			}
 		} else {
-			if (highlightHintsP1) {
-				instructionsPane.setText("Player 1, it's your turn.\nSelect one of your highlighted pits.");
+			if (hintsEnabled) {
+				instructionsPane.setText("Player 1, it's your turn.\nTry the highlighted pit.");
 			} else {
 				instructionsPane.setText("Player 1, it's your turn.\nChoose a pit.");
 			}
 		}
 
-		p1ScoreNumber.setText(String.valueOf(game.getStoreList().get(13).getMarbleList().size()));
-		p2ScoreNumber.setText(String.valueOf(game.getStoreList().get(6).getMarbleList().size()));
+		p1ScoreNumber.setText(String.valueOf(game.getScore(1)));
+		p2ScoreNumber.setText(String.valueOf(game.getScore(0)));
 	}
 
 	/**
-	 * Contains the logic for the computer opponent, deciding which pit would gain
-	 * the most number of marbes for itself.
+	 * Creates the computer opponent's engine. The opening is played from the book
+	 * if one has been built into {@link OpeningBookBuilder#DEFAULT_FILE_NAME}, the
+	 * endgame from the tablebase if one has been generated into
+	 * {@link TablebaseGenerator#DEFAULT_FILE_NAME} and solved during play
+	 * otherwise, and the rest is searched. Only the levels that play perfectly
+	 * where they can use the book, the tablebase and the endgame solver.
 	 * 
-	 * @return int an integer representing the index of the best pit to be moved by
-	 *         the computer opponent
+	 * @param difficulty the level the computer opponent plays at
+	 * @return the computer opponent's search engine
 	 */
-	public int chooseOpponentPit() {
-		// Chooses a random index in case no better move is found
-		int bestPitIndex = rand.nextInt(13 - 7) + 7;
-		while (game.getStoreList().get(bestPitIndex).getMarbleList().size() == 0) {
-			bestPitIndex = rand.nextInt(13 - 7) + 7;
+	private static SearchEngine createOpponentEngine(Difficulty difficulty) {
+		SearchEngine engine = difficulty.createSearchEngine();
+		if (!difficulty.usesPerfectPlay()) {
+			return engine;
 		}
-
-		// Determine if there are any opportunities for the other player to gain a
-		// capture
-		int greatestMarbleLossPitIndex = 0;
-		for (int i = 0; i < 6; i++) {
-			game.setCurrentPlayer(0);
-
-			int endPitIndex = movePit(i, true);
-			Marble marble = new Marble();
-			if (game.getStoreList().get(i).getMarbleList().size() > 0) {
-				game.getStoreList().get(endPitIndex).getMarbleList().add(marble);
-			}
-
-			if (game.checkCapture(endPitIndex)) {
-				int possibleMarbleLoss = game.getStoreList().get(12 - endPitIndex).getMarbleList().size();
-				if (possibleMarbleLoss > game.getStoreList().get(greatestMarbleLossPitIndex).getMarbleList().size()) {
-					greatestMarbleLossPitIndex = 12 - endPitIndex;
-				}
-			}
-
-			if (game.getStoreList().get(i).getMarbleList().size() > 0) {
-				game.getStoreList().get(endPitIndex).getMarbleList().remove(marble);
+		engine = new EndgameEngine(engine, difficulty.getTimeLimit() / 2);
+		File tablebaseFile = new File(TablebaseGenerator.DEFAULT_FILE_NAME);
+		if (tablebaseFile.exists()) {
+			try {
+				engine = new TablebaseEngine(Tablebase.open(tablebaseFile), engine);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
-			game.setCurrentPlayer(1);
 		}
-
-		// Determine if there are any opportunities to gain a capture
-		int greatestMarbleGainPitIndex = 0;
-		for (int i = 7; i < 13; i++) {
-			int endPitIndex = movePit(i, true);
-			Marble marble = new Marble();
-			if (game.getStoreList().get(i).getMarbleList().size() > 0) {
-				game.getStoreList().get(endPitIndex).getMarbleList().add(marble);
-			}
-			if (game.checkCapture(endPitIndex)) {
-				int possibleMarbleGain = game.getStoreList().get(12 - i).getMarbleList().size() + 1;
-				if (possibleMarbleGain > game.getStoreList().get(greatestMarbleGainPitIndex).getMarbleList().size()) {
-					greatestMarbleGainPitIndex = i;
-				}
-			}
-			if (game.getStoreList().get(i).getMarbleList().size() > 0) {
-				game.getStoreList().get(endPitIndex).getMarbleList().remove(marble);
+		File bookFile = new File(OpeningBookBuilder.DEFAULT_FILE_NAME);
+		if (bookFile.exists()) {
+			try {
+				engine = new OpeningBookEngine(OpeningBook.open(bookFile), engine);
+			} catch (IOException e) {
+				e.printStackTrace();
 			}
 		}
+		return engine;
+	}
 
-		if (greatestMarbleGainPitIndex > 0) {
+	/**
+	 * Scores every legal move in the current position for the player whose turn
+	 * it is, for coaching. The moves are analysed together within a fixed time,
+	 * and the analysis engine keeps its transposition table between calls, so
+	 * asking again about the same position looks deeper.
+	 * 
+	 * @return the analysis of every legal move, best first
+	 * @throws IllegalStateException if the player to move has no legal move
+	 */
+	public MoveAnalysis[] analyzeMoves() {
+		Board position = new Board(game.getBoard());
+		synchronized (analysisEngine) {
+			return analysisEngine.analyze(position);
 		}
+	}
 
-		// Make whichever move will result in a greater number of marbles gained:
-		// blocking the other player's capture or gaining a capture for yourself
-		if (greatestMarbleLossPitIndex > greatestMarbleGainPitIndex) {
-			bestPitIndex = greatestMarbleLossPitIndex;
-			return bestPitIndex;
-		} else if (greatestMarbleGainPitIndex > greatestMarbleLossPitIndex) {
-			bestPitIndex = greatestMarbleGainPitIndex;
-			return bestPitIndex;
-		}
+	/**
+	 * Lets the computer opponent think about its replies in the background while
+	 * the human player decides on their move. The thinking stops when the
+	 * opponent is asked for its move or the board is reset.
+	 */
+	public void ponderOpponentReplies() {
+		opponentEngine.ponder(game.getBoard());
+	}
 
-		// If there's a move that will allow for another turn, make it
-		for (int i = 7; i < 13; i++) {
-			if (movePit(i, true) == 6 || movePit(i, true) == 13) {
-				bestPitIndex = i;
-				return bestPitIndex;
-			}
+	/**
+	 * Returns the engine that chooses the computer opponent's moves.
+	 * 
+	 * @return the computer opponent's search engine
+	 */
+	public SearchEngine getOpponentEngine() {
+		return opponentEngine;
+	}
+
+	/**
+	 * Returns the level the computer opponent plays at.
+	 * 
+	 * @return the computer opponent's difficulty
+	 */
+	public Difficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * Sets the level the computer opponent plays at. A new engine is made for the
+	 * level, and the threads of the old one are stopped, so no search may still
+	 * be running on the old engine.
+	 * 
+	 * @param difficulty the computer opponent's difficulty
+	 */
+	public void setDifficulty(Difficulty difficulty) {
+		if (difficulty == this.difficulty) {
+			return;
 		}
+		opponentEngine.stopPondering();
+		opponentEngine.shutdown();
+		this.difficulty = difficulty;
+		opponentEngine = createOpponentEngine(difficulty);
+	}
 
-		return bestPitIndex;
+	/**
+	 * Sets the engine that chooses the computer opponent's moves.
+	 * 
+	 * @param opponentEngine the search engine to be used by the computer opponent
+	 */
+	public void setOpponentEngine(SearchEngine opponentEngine) {
+		this.opponentEngine = opponentEngine;
 	}
 
 	/**
@@ -724,38 +645,86 @@ public class PlayPanel extends JPanel {
 	 * 
 	 * @param selectedPitIndex an integer representing the location of the desired
 	 *                         pit within the list storing pit information
+	 * @return the outcome of the move, or null if the pit could not be moved
 	 */
-	public void playerMove(int selectedPitIndex) {
-		// After a player chooses a pit, play moves to the other player
-		game.setsAnotherMove(selectedPitIndex);
-		boolean getsAnotherTurn = game.getsAnotherMove();
-		int endPitIndex = movePit(selectedPitIndex, false);
-		if (endPitIndex != selectedPitIndex) {
-			if (game.checkCapture(endPitIndex)) {
-				moveCapturedMarbles(endPitIndex);
-				game.moveCapturedMarbles(endPitIndex);
-
-			}
-			if (!getsAnotherTurn) {
-				game.switchPlayer();
-				// Turns off the highlighting hints after each player's first turn
-				if (highlightHintsP1) {
-					highlightHintsP2 = true;
-				} else {
-					highlightHintsP2 = false;
-				}
-				highlightHintsP1 = false;
-			}
-			changeInstructionText(getsAnotherTurn);
+	public MoveResult playerMove(int selectedPitIndex) {
+		MoveResult result = game.apply(selectedPitIndex);
+		if (result == null) {
+			return null;
 		}
+		placeMarbles();
+		changeInstructionText(result.isExtraTurn());
 
-		if (game.hasWinner()) {
+		if (result.isGameOver()) {
 			game.setWinner();
-			repaint();
-
+			placeMarbles();
 		}
 		repaint();
+		// The hint is searched for after the move has been painted
+		requestHint();
 
+		return result;
+	}
+
+	/**
+	 * Highlights the best pit for the human player whose turn it is, clearing the
+	 * hint for the last position. A hint already found for the position is shown
+	 * straight away. Otherwise the position is analysed on the hint thread, and
+	 * the hint is cached and shown once it is ready, unless a move has been made
+	 * in the meantime. Requests made stale by a later one are skipped rather than
+	 * analysed. Nothing is highlighted on the computer opponent's turns or once
+	 * the game is over.
+	 * 
+	 * <p>
+	 * Hints are requested after every move. They are not requested when the
+	 * board is reset, so that no search runs while the panel is hidden; request
+	 * one when the panel is shown.
+	 */
+	public void requestHint() {
+		clearHint();
+		Board position = new Board(game.getBoard());
+		if (!hintsEnabled || position.isGameOver() || singlePlayer && position.getCurrentPlayer() == 1) {
+			return;
+		}
+		long key = ZobristHash.hash(position);
+		Integer cachedPit = hintCache.get(key);
+		if (cachedPit != null) {
+			hintPit = cachedPit;
+			repaint();
+			return;
+		}
+		int generation = hintGeneration;
+		hintThread.execute(() -> {
+			// A move made while the request was queued makes it stale before it starts
+			if (generation != hintGeneration) {
+				return;
+			}
+			int pit = hintEngine.analyze(position)[0].getPit();
+			SwingUtilities.invokeLater(() -> showHint(generation, key, pit));
+		});
+	}
+
+	/**
+	 * Removes the highlight, and makes any hint still being searched for stale.
+	 */
+	private void clearHint() {
+		hintGeneration++;
+		hintPit = -1;
+	}
+
+	/**
+	 * Caches a hint found on the hint thread, and shows it if no move has been
+	 * made since it was asked for.
+	 */
+	private void showHint(int generation, long key, int pit) {
+		if (hintCache.size() >= MAX_CACHED_HINTS) {
+			hintCache.clear();
+		}
+		hintCache.put(key, pit);
+		if (generation == hintGeneration) {
+			hintPit = pit;
+			repaint();
+		}
 	}
 
 	/**
@@ -778,11 +747,12 @@ public class PlayPanel extends JPanel {
 			public void mouseClicked(MouseEvent e) {
 				// On a mouse click, the marbles are moved and the player is changed
 				RoundButton buttonClicked = (RoundButton) e.getSource();
-				Pit currentPit = game.getStoreList().get(buttonClicked.getPitNumber());
 				int selectedPitIndex = buttonClicked.getPitNumber();
 
-				// Only allows player to choose a pit on their side of the board
-				if (currentPit.getSide() == game.getCurrentPlayer()) {
+				// Only allows player to choose a pit on their side of the board, and never
+				// on the computer opponent's side
+				if (Board.getSide(selectedPitIndex) == game.getCurrentPlayer()
+						&& !(singlePlayer && game.getCurrentPlayer() == 1)) {
 					playerMove(selectedPitIndex);
 				}
 
@@ -798,15 +768,15 @@ public class PlayPanel extends JPanel {
 			public void mouseEntered(MouseEvent e) {
 				// Changes the cursor to a hand if the mouse hovers over one of their pits
 				RoundButton buttonClicked = (RoundButton) e.getSource();
-				Pit currentPit = game.getStoreList().get(buttonClicked.getPitNumber());
+				int pitIndex = buttonClicked.getPitNumber();
 
-				if (currentPit.getSide() == game.getCurrentPlayer()) {
+				if (Board.getSide(pitIndex) == game.getCurrentPlayer()) {
 					setCursor(new Cursor(Cursor.HAND_CURSOR));
 				}
 
 				// Creates pop-up text to display the number of marbles in the pit being hovered
 				// over
-				buttonClicked.setToolTipText("Marble Count: " + currentPit.getMarbleList().size());
+				buttonClicked.setToolTipText("Marble Count: " + game.getBoard().getSeeds(pitIndex));
 			}
 
 			/*
@@ -856,25 +826,25 @@ public class PlayPanel extends JPanel {
 	}
 
 	/**
-	 * Sets the boolean specifying whether the highlight hints should be shown on
-	 * Player 2's side.
+	 * Sets whether the best pit is highlighted for the human player whose turn it
+	 * is.
 	 * 
-	 * @param highlightHint true if hightlight hints should be shown over Player 2's
-	 *                      pits and false otherwise
+	 * @param hintsEnabled true if hints should be shown and false otherwise
 	 */
-	public void setHighlightHintsP2(boolean highlightHint) {
-		highlightHintsP2 = highlightHint;
+	public void setHintsEnabled(boolean hintsEnabled) {
+		this.hintsEnabled = hintsEnabled;
+		requestHint();
+		repaint();
 	}
 
 	/**
-	 * Returns the boolean specifying whether the highlight hints should be shown on
-	 * Player 2's side.
+	 * Returns whether the best pit is highlighted for the human player whose turn
+	 * it is.
 	 * 
-	 * @return true if hightlight hints should be shown over Player 2's
-	 *                      pits and false otherwise
+	 * @return true if hints are shown and false otherwise
 	 */
-	public boolean getHighlightHintsP2() {
-		return highlightHintsP2;
+	public boolean getHintsEnabled() {
+		return hintsEnabled;
 	}
 
 	/**
@@ -0,0 +1,507 @@
+package mancala;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Answers yes-or-no questions about a position, such as whether the player to
+ * move wins it, with depth-first proof-number search. A full search has to find
+ * the exact score of every move, while a proof only needs one winning move at
+ * each of the player's turns and every reply at the opponent's, and proof
+ * numbers steer the search towards the moves that are easiest to prove or
+ * refute. Questions about won or lost middlegames are answered far faster than
+ * by {@link AlphaBetaEngine}.
+ *
+ * <p>
+ * Every position searched has a proof number, the fewest unsolved positions
+ * that would have to be proven for it to be proven, and a disproof number, the
+ * same for disproving it. These numbers are kept in a table of bounded size,
+ * split into buckets of four entries, where a new position takes the place of
+ * the one that took least work to search. When a position is solved, the
+ * entries of the moves that are not part of its proof or disproof are freed,
+ * so the table only holds the solved subtrees still needed and the positions
+ * being worked on.
+ *
+ * <p>
+ * Running this program solves the positions in a file, one per line, each
+ * written as the 14 slot counts of the board followed by the player to move.
+ * The file name, the margin to be proven and the time limit for each position
+ * in milliseconds can be given as the program arguments.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class ProofNumberSolver {
+	public static final int PROVEN = 1;
+	public static final int DISPROVEN = -1;
+	public static final int UNKNOWN = 0;
+	public static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+	// Proof and disproof numbers of solved positions; sums are capped here
+	static final int INFINITY = Integer.MAX_VALUE / 2;
+
+	private static final int BUCKET_SIZE = 4;
+	private static final int ENTRY_BYTES = 2 * Long.BYTES + 3 * Integer.BYTES;
+	private static final long TIME_CHECK_INTERVAL = 1023;
+
+	private final long[] keys;
+	private final int[] proofNumbers;
+	private final int[] disproofNumbers;
+	private final int[] treeSizes;
+	private final long[] work;
+	private final int bucketMask;
+
+	private int rootPlayer;
+	private int margin;
+	private long deadline;
+	private boolean timeUp;
+	private long nodesSearched;
+	private long entriesFreed;
+	private int bestMove = -1;
+	private int proofSize;
+	private long lastSolveNanos;
+
+	/**
+	 * Creates a solver with a {@link #DEFAULT_TABLE_MEGABYTES} table.
+	 */
+	public ProofNumberSolver() {
+		this(DEFAULT_TABLE_MEGABYTES);
+	}
+
+	/**
+	 * Creates a solver whose table uses no more than the given amount of memory.
+	 *
+	 * @param megabytes the most memory the table may use, in megabytes
+	 * @throws IllegalArgumentException if the limit is less than one megabyte
+	 */
+	public ProofNumberSolver(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("A proof-number table needs at least 1 MB: " + megabytes);
+		}
+		long maxBuckets = (long) megabytes * 1024 * 1024 / (ENTRY_BYTES * BUCKET_SIZE);
+		int bucketCount = Integer.highestOneBit((int) Math.min(maxBuckets, 1 << 27));
+		keys = new long[bucketCount * BUCKET_SIZE];
+		proofNumbers = new int[bucketCount * BUCKET_SIZE];
+		disproofNumbers = new int[bucketCount * BUCKET_SIZE];
+		treeSizes = new int[bucketCount * BUCKET_SIZE];
+		work = new long[bucketCount * BUCKET_SIZE];
+		bucketMask = bucketCount - 1;
+	}
+
+	/**
+	 * Works out whether the player to move wins the game.
+	 *
+	 * @param board the position to be solved, which is left unchanged
+	 * @return {@link #PROVEN} if the player to move wins, {@link #DISPROVEN} if
+	 *         they draw or lose
+	 */
+	public int solve(Board board) {
+		return solve(board, 0, 0);
+	}
+
+	/**
+	 * Works out whether the player to move in a game wins it.
+	 *
+	 * @param game the game to be solved, which is left unchanged
+	 * @return {@link #PROVEN} if the player to move wins, {@link #DISPROVEN} if
+	 *         they draw or lose
+	 */
+	public int solve(Game game) {
+		return solve(game.getBoard());
+	}
+
+	/**
+	 * Works out whether the player to move finishes the game more than the given
+	 * number of marbles ahead of the other player, whatever the other player does.
+	 *
+	 * @param board           the position to be solved, which is left unchanged
+	 * @param margin          the number of marbles the player to move must finish
+	 *                        more than ahead by; 0 asks whether they win
+	 * @param timeLimitMillis the most time the proof may take, in milliseconds, or
+	 *                        0 for no limit
+	 * @return {@link #PROVEN} if the player to move finishes more than the margin
+	 *         ahead, {@link #DISPROVEN} if they do not, or {@link #UNKNOWN} if the
+	 *         time ran out first
+	 */
+	public int solve(Board board, int margin, long timeLimitMillis) {
+		long startTime = System.nanoTime();
+		clear();
+		rootPlayer = board.getCurrentPlayer();
+		this.margin = margin;
+		deadline = timeLimitMillis > 0 ? startTime + timeLimitMillis * 1000000 : Long.MAX_VALUE;
+		timeUp = false;
+		nodesSearched = 0;
+		entriesFreed = 0;
+		bestMove = -1;
+		proofSize = 0;
+
+		int result;
+		Board position = new Board(board);
+		if (position.isGameOver()) {
+			result = getOutcome(position);
+			proofSize = 1;
+		} else {
+			long key = ZobristHash.hash(position);
+			search(position, key, INFINITY, INFINITY);
+			int entry = find(key);
+			result = entry < 0 ? UNKNOWN : getResult(proofNumbers[entry], disproofNumbers[entry]);
+			if (result != UNKNOWN) {
+				proofSize = treeSizes[entry];
+				bestMove = findBestMove(position, result);
+			}
+		}
+		lastSolveNanos = System.nanoTime() - startTime;
+		return result;
+	}
+
+	/**
+	 * Works out the proof and disproof numbers of a position until one of them
+	 * reaches its threshold, trying its most promising move again and again. The
+	 * numbers are stored in the table when the search returns.
+	 */
+	private void search(Board board, long key, int proofThreshold, int disproofThreshold) {
+		nodesSearched++;
+		if ((nodesSearched & TIME_CHECK_INTERVAL) == 0 && System.nanoTime() >= deadline) {
+			timeUp = true;
+		}
+		long workBefore = nodesSearched;
+		boolean orNode = board.getCurrentPlayer() == rootPlayer;
+
+		// List the moves, solving those that end the game straight away
+		int[] pits = new int[Board.PITS_PER_SIDE];
+		long[] childKeys = new long[Board.PITS_PER_SIDE];
+		int[] outcomes = new int[Board.PITS_PER_SIDE];
+		int moveCount = 0;
+		int firstPit = board.getCurrentPlayer() * (Board.PITS_PER_SIDE + 1);
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (!board.isLegal(pit)) {
+				continue;
+			}
+			long undo = board.makeMove(pit);
+			pits[moveCount] = pit;
+			if (board.isGameOver()) {
+				outcomes[moveCount] = getOutcome(board);
+			} else {
+				childKeys[moveCount] = ZobristHash.hash(board);
+			}
+			board.unmakeMove(undo);
+			moveCount++;
+		}
+
+		int[] childProofs = new int[moveCount];
+		int[] childDisproofs = new int[moveCount];
+		int[] childSizes = new int[moveCount];
+		int proof;
+		int disproof;
+		while (true) {
+			for (int i = 0; i < moveCount; i++) {
+				readChild(childKeys[i], outcomes[i], i, childProofs, childDisproofs, childSizes);
+			}
+
+			// Only one move has to work at the player's own turn, but every move at
+			// the opponent's
+			int[] minimised = orNode ? childProofs : childDisproofs;
+			int[] summed = orNode ? childDisproofs : childProofs;
+			int best = 0;
+			int secondBest = INFINITY;
+			long sum = 0;
+			for (int i = 0; i < moveCount; i++) {
+				if (minimised[i] < minimised[best]) {
+					secondBest = minimised[best];
+					best = i;
+				} else if (i != best && minimised[i] < secondBest) {
+					secondBest = minimised[i];
+				}
+				sum += summed[i];
+			}
+			int minimum = minimised[best];
+			int total = (int) Math.min(sum, INFINITY);
+			proof = orNode ? minimum : total;
+			disproof = orNode ? total : minimum;
+			if (proof >= proofThreshold || disproof >= disproofThreshold || timeUp) {
+				break;
+			}
+
+			// Search the most promising move until it is no longer the most promising
+			int childProofThreshold;
+			int childDisproofThreshold;
+			if (orNode) {
+				childProofThreshold = Math.min(proofThreshold, secondBest + 1);
+				childDisproofThreshold = disproofThreshold - disproof + childDisproofs[best];
+			} else {
+				childProofThreshold = proofThreshold - proof + childProofs[best];
+				childDisproofThreshold = Math.min(disproofThreshold, secondBest + 1);
+			}
+			long undo = board.makeMove(pits[best]);
+			search(board, childKeys[best], childProofThreshold, childDisproofThreshold);
+			board.unmakeMove(undo);
+		}
+
+		int result = getResult(proof, disproof);
+		int treeSize = 0;
+		if (result != UNKNOWN) {
+			treeSize = getTreeSize(orNode == (result == PROVEN), result, moveCount, childProofs, childDisproofs,
+					childSizes, childKeys, outcomes);
+		}
+		store(key, proof, disproof, treeSize, nodesSearched - workBefore + 1);
+	}
+
+	/**
+	 * Reads the proof and disproof numbers and proof tree size of a move into the
+	 * given arrays.
+	 */
+	private void readChild(long childKey, int outcome, int i, int[] childProofs, int[] childDisproofs,
+			int[] childSizes) {
+		if (outcome != UNKNOWN) {
+			childProofs[i] = outcome == PROVEN ? 0 : INFINITY;
+			childDisproofs[i] = outcome == PROVEN ? INFINITY : 0;
+			childSizes[i] = 1;
+			return;
+		}
+		int entry = find(childKey);
+		if (entry < 0) {
+			childProofs[i] = 1;
+			childDisproofs[i] = 1;
+			childSizes[i] = 0;
+		} else {
+			childProofs[i] = proofNumbers[entry];
+			childDisproofs[i] = disproofNumbers[entry];
+			childSizes[i] = treeSizes[entry];
+		}
+	}
+
+	/**
+	 * Counts the positions in the proof or disproof of a solved position, and
+	 * frees the entries of the moves that are not part of it. If one move is
+	 * enough, only the smallest solved one is kept; otherwise every move is part
+	 * of it.
+	 */
+	private int getTreeSize(boolean oneMoveEnough, int result, int moveCount, int[] childProofs,
+			int[] childDisproofs, int[] childSizes, long[] childKeys, int[] outcomes) {
+		int[] solved = result == PROVEN ? childProofs : childDisproofs;
+		if (!oneMoveEnough) {
+			long size = 1;
+			for (int i = 0; i < moveCount; i++) {
+				size += childSizes[i];
+			}
+			return (int) Math.min(size, Integer.MAX_VALUE);
+		}
+		int kept = -1;
+		for (int i = 0; i < moveCount; i++) {
+			if (solved[i] == 0 && (kept < 0 || childSizes[i] < childSizes[kept])) {
+				kept = i;
+			}
+		}
+		for (int i = 0; i < moveCount; i++) {
+			if (i != kept && outcomes[i] == UNKNOWN) {
+				free(childKeys[i]);
+			}
+		}
+		return childSizes[kept] + 1;
+	}
+
+	/**
+	 * Finds the move at the root that keeps the result, the one with the smallest
+	 * proof if the position was proven.
+	 */
+	private int findBestMove(Board board, int result) {
+		int bestPit = -1;
+		int bestSize = Integer.MAX_VALUE;
+		int firstPit = board.getCurrentPlayer() * (Board.PITS_PER_SIDE + 1);
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (!board.isLegal(pit)) {
+				continue;
+			}
+			long undo = board.makeMove(pit);
+			int outcome = UNKNOWN;
+			int size = 1;
+			if (board.isGameOver()) {
+				outcome = getOutcome(board);
+			} else {
+				int entry = find(ZobristHash.hash(board));
+				if (entry >= 0) {
+					outcome = getResult(proofNumbers[entry], disproofNumbers[entry]);
+					size = treeSizes[entry];
+				}
+			}
+			board.unmakeMove(undo);
+			if (outcome == PROVEN && (result != PROVEN || size < bestSize)) {
+				bestPit = pit;
+				bestSize = size;
+			} else if (bestPit < 0 && result == DISPROVEN) {
+				bestPit = pit;
+			}
+		}
+		return bestPit;
+	}
+
+	/**
+	 * Returns whether the player to move at the root has reached the margin in a
+	 * finished game.
+	 */
+	private int getOutcome(Board board) {
+		int finalMargin = Evaluation.getFinalMargin(board);
+		if (board.getCurrentPlayer() != rootPlayer) {
+			finalMargin = -finalMargin;
+		}
+		return finalMargin > margin ? PROVEN : DISPROVEN;
+	}
+
+	/**
+	 * Returns the result of a position from its proof and disproof numbers.
+	 */
+	private static int getResult(int proof, int disproof) {
+		if (proof == 0) {
+			return PROVEN;
+		}
+		return disproof == 0 ? DISPROVEN : UNKNOWN;
+	}
+
+	/**
+	 * Returns the index of the entry of a position, or -1 if it is not in the
+	 * table.
+	 */
+	private int find(long key) {
+		int first = (int) (key & bucketMask) * BUCKET_SIZE;
+		for (int entry = first; entry < first + BUCKET_SIZE; entry++) {
+			if (keys[entry] == key && work[entry] != 0) {
+				return entry;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Stores the numbers of a position, in its own entry if it has one, and
+	 * otherwise in place of the entry of its bucket that took the least work.
+	 */
+	private void store(long key, int proof, int disproof, int treeSize, long searchWork) {
+		int entry = find(key);
+		if (entry >= 0) {
+			searchWork += work[entry];
+		} else {
+			int first = (int) (key & bucketMask) * BUCKET_SIZE;
+			entry = first;
+			for (int i = first + 1; i < first + BUCKET_SIZE; i++) {
+				if (work[i] < work[entry]) {
+					entry = i;
+				}
+			}
+		}
+		keys[entry] = key;
+		proofNumbers[entry] = proof;
+		disproofNumbers[entry] = disproof;
+		treeSizes[entry] = treeSize;
+		work[entry] = searchWork;
+	}
+
+	/**
+	 * Frees the entry of a position that is no longer needed.
+	 */
+	private void free(long key) {
+		int entry = find(key);
+		if (entry >= 0) {
+			work[entry] = 0;
+			entriesFreed++;
+		}
+	}
+
+	/**
+	 * Empties the table.
+	 */
+	public void clear() {
+		Arrays.fill(work, 0);
+	}
+
+	/**
+	 * Returns the number of positions in the proof or disproof found by the last
+	 * solve, counting a position once for every way it is reached.
+	 *
+	 * @return the size of the last proof, or 0 if the last solve ran out of time
+	 */
+	public int getProofSize() {
+		return proofSize;
+	}
+
+	/**
+	 * Returns a move that keeps the result found by the last solve: a winning move
+	 * if the position was proven.
+	 *
+	 * @return the index of the pit to be moved, or -1 if the last solve ran out of
+	 *         time or the game was over
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * Returns the number of positions searched by the last solve.
+	 *
+	 * @return the number of nodes searched
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the number of table entries freed by the last solve because they
+	 * were not part of the proof of a solved position.
+	 *
+	 * @return the number of entries freed
+	 */
+	public long getEntriesFreed() {
+		return entriesFreed;
+	}
+
+	/**
+	 * Returns how long the last solve took.
+	 *
+	 * @return the time taken, in nanoseconds
+	 */
+	public long getLastSolveNanos() {
+		return lastSolveNanos;
+	}
+
+	/**
+	 * Returns the number of positions the table can hold.
+	 *
+	 * @return the number of entries in the table
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Executes when this program is ran. Solves every position in a file and
+	 * prints the result, the proof size and the time taken.
+	 *
+	 * @param args the file name, the margin to be proven and the time limit for
+	 *             each position in milliseconds; the last two are optional
+	 * @throws IOException if the file cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		int margin = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		long timeLimit = args.length > 2 ? Long.parseLong(args[2]) : 0;
+		ProofNumberSolver solver = new ProofNumberSolver();
+		Board board = new Board();
+		try (BufferedReader in = new BufferedReader(new FileReader(args[0]))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length != Board.SLOT_COUNT + 1) {
+					continue;
+				}
+				for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+					board.setSeeds(slot, Integer.parseInt(fields[slot]));
+				}
+				board.setCurrentPlayer(Integer.parseInt(fields[Board.SLOT_COUNT]));
+				int result = solver.solve(board, margin, timeLimit);
+				System.out.println(line.trim() + ": " + (result == PROVEN ? "proven, move " + solver.getBestMove()
+						: result == DISPROVEN ? "disproven" : "unknown") + ", proof size " + solver.getProofSize()
+						+ ", " + solver.getNodesSearched() + " nodes in " + solver.getLastSolveNanos() / 1000000
+						+ " ms");
+			}
+		}
+	}
+}
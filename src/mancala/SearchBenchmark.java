@@ -0,0 +1,96 @@
+package mancala;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how the parallel search speeds up with the number of threads. A set
+ * of positions is searched to a fixed depth with one thread, then two, four and
+ * so on, and last with one thread for each processor. The time, node throughput
+ * and speed-up over one thread are printed for each thread count. The chosen
+ * moves are also checked against the serial search.
+ * 
+ * <p>
+ * The search depth and the number of positions can be given as the first and
+ * second program arguments.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class SearchBenchmark {
+	private static final int DEFAULT_DEPTH = 14;
+	private static final int DEFAULT_POSITION_COUNT = 20;
+
+	/**
+	 * Creates the positions to be searched by playing random moves from the
+	 * starting position.
+	 */
+	private static Board[] createPositions(int positionCount) {
+		Random rand = new Random(42);
+		Board[] positions = new Board[positionCount];
+		for (int i = 0; i < positionCount; i++) {
+			Board board;
+			do {
+				board = new Board();
+				board.reset(4);
+				int moveCount = rand.nextInt(12);
+				for (int j = 0; j < moveCount && !board.isGameOver(); j++) {
+					int pit;
+					do {
+						pit = rand.nextInt(Board.SLOT_COUNT);
+					} while (!board.isLegal(pit));
+					board.makeMove(pit);
+				}
+			} while (board.isGameOver());
+			positions[i] = board;
+		}
+		return positions;
+	}
+
+	/**
+	 * Executes when this program is ran. Prints the speed-up of the parallel
+	 * search for each thread count.
+	 * 
+	 * @param args the search depth and the number of positions, both optional
+	 */
+	public static void main(String[] args) {
+		int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+		int positionCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_POSITION_COUNT;
+		Board[] positions = createPositions(positionCount);
+
+		// The serial moves every thread count must agree with
+		AlphaBetaEngine serial = new AlphaBetaEngine(depth, 0, null);
+		int[] serialMoves = new int[positionCount];
+		for (int i = 0; i < positionCount; i++) {
+			serialMoves[i] = serial.chooseMove(positions[i]);
+		}
+
+		int processorCount = Runtime.getRuntime().availableProcessors();
+		System.out.println("Depth " + depth + ", " + positionCount + " positions, " + processorCount + " processors");
+		System.out.println("threads      ms       nodes    nodes/s  speed-up  same moves");
+		double singleThreadMillis = 0;
+		// The thread count doubles, and the last is always the number of processors
+		List<Integer> threadCounts = new ArrayList<>();
+		for (int threadCount = 1; threadCount < processorCount; threadCount *= 2) {
+			threadCounts.add(threadCount);
+		}
+		threadCounts.add(processorCount);
+		for (int threadCount : threadCounts) {
+			ParallelSearchEngine engine = new ParallelSearchEngine(threadCount, depth, 0);
+			long nodes = 0;
+			boolean sameMoves = true;
+			long startTime = System.nanoTime();
+			for (int i = 0; i < positionCount; i++) {
+				sameMoves &= engine.chooseMove(positions[i]) == serialMoves[i];
+				nodes += engine.getNodesSearched();
+			}
+			double millis = (System.nanoTime() - startTime) / 1e6;
+			engine.shutdown();
+			if (threadCount == 1) {
+				singleThreadMillis = millis;
+			}
+			System.out.printf("%7d %7.0f %11d %10.0f %9.2f  %s%n", threadCount, millis, nodes, nodes / millis * 1000,
+					singleThreadMillis / millis, sameMoves ? "yes" : "NO");
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package mancala;
+
+/**
+ * A strategy for choosing the computer opponent's moves. An engine is given
+ * the current board and returns the pit it wants to move for the player whose
+ * turn it is. Engines work on their own copy of the board, so the board passed
+ * in is never changed.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public interface SearchEngine {
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	int chooseMove(Board position);
+
+	/**
+	 * Returns the number of positions the engine looked at while choosing its
+	 * last move.
+	 * 
+	 * @return the number of nodes searched for the last move
+	 */
+	long getNodesSearched();
+
+	/**
+	 * Returns the statistics of the engine's last move: nodes, speed, depth, table
+	 * hits, cutoffs, principal variation and time. Engines that keep no
+	 * statistics return null.
+	 * 
+	 * @return the statistics of the last move, or null if there are none
+	 */
+	default SearchStats getLastStats() {
+		return null;
+	}
+
+	/**
+	 * Returns the time the engine allows itself for each move. An engine that is
+	 * limited by time must report its limit, so that a wrapper sharing one budget
+	 * between engines can account for it.
+	 * 
+	 * @return the time limit in milliseconds, or 0 if there is no limit
+	 */
+	long getTimeLimit();
+
+	/**
+	 * Sets the time the engine allows itself for each move. Engines that are not
+	 * limited by time ignore this.
+	 * 
+	 * @param timeLimitMillis the time limit in milliseconds, or 0 for no limit
+	 */
+	void setTimeLimit(long timeLimitMillis);
+
+	/**
+	 * Asks a search running on another thread to return as soon as it can, with
+	 * the best move it has found so far. The request stays in place, so any
+	 * search started afterwards returns at once too, until {@link #clearStop()}
+	 * is called. The game waits for a stopped search before going on, so every
+	 * engine must honour this quickly.
+	 */
+	void requestStop();
+
+	/**
+	 * Withdraws a request to stop, so that the next search runs normally.
+	 */
+	void clearStop();
+
+	/**
+	 * Starts thinking in the background about a position where the other player
+	 * is to move, so that the reply to their move is ready sooner. Engines that
+	 * cannot ponder ignore this.
+	 * 
+	 * @param position the position the other player is to move in, which is left
+	 *                 unchanged
+	 */
+	default void ponder(Board position) {
+	}
+
+	/**
+	 * Stops any thinking started by {@link #ponder(Board)}. Choosing a move stops
+	 * it as well.
+	 */
+	default void stopPondering() {
+	}
+
+	/**
+	 * Stops any threads the engine has started. The engine cannot be used
+	 * afterwards. Engines that search on the calling thread have nothing to stop.
+	 */
+	default void shutdown() {
+	}
+}
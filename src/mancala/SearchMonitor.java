@@ -0,0 +1,243 @@
+package mancala;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Collects the {@link SearchStats} of every move the computer opponent
+ * chooses, so they can be read while the game runs. The engines count their
+ * work as they search; whoever asks an engine for a move publishes the
+ * engine's statistics here afterwards. The monitor keeps the last record and
+ * running totals, and is registered with the platform MBean server under
+ * {@link #OBJECT_NAME} so JConsole and other JMX clients can read it.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class SearchMonitor implements SearchMonitorMBean {
+	public static final String OBJECT_NAME = "mancala:type=SearchMonitor";
+
+	private static SearchMonitor instance;
+
+	private SearchStats lastStats;
+	private long moveCount;
+	private long totalNodesSearched;
+	private long totalTimeNanos;
+	private long totalDepth;
+
+	/**
+	 * Returns the monitor shared by the whole program, registering it with the
+	 * platform MBean server the first time it is asked for.
+	 *
+	 * @return the search monitor
+	 */
+	public static synchronized SearchMonitor getInstance() {
+		if (instance == null) {
+			instance = new SearchMonitor();
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				server.registerMBean(instance, new ObjectName(OBJECT_NAME));
+			} catch (JMException | SecurityException e) {
+				// JMX is optional; the statistics can still be read through the monitor itself
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Records the statistics of a move. Engines that keep no statistics give
+	 * null, which is ignored.
+	 *
+	 * @param stats the statistics of the move, or null
+	 */
+	public synchronized void publish(SearchStats stats) {
+		if (stats == null) {
+			return;
+		}
+		lastStats = stats;
+		moveCount++;
+		totalNodesSearched += stats.getNodesSearched();
+		totalTimeNanos += stats.getTimeNanos();
+		totalDepth += stats.getDepth();
+	}
+
+	/**
+	 * Returns the statistics of the last move published.
+	 *
+	 * @return the last statistics, or null if no move has been published
+	 */
+	public synchronized SearchStats getLastStats() {
+		return lastStats;
+	}
+
+	/**
+	 * Returns the number of moves published since the monitor was created or last
+	 * reset.
+	 *
+	 * @return the number of moves published
+	 */
+	public synchronized long getMoveCount() {
+		return moveCount;
+	}
+
+	/**
+	 * Returns the number of positions searched for the last move published.
+	 *
+	 * @return the number of nodes searched, or 0 if no move has been published
+	 */
+	public synchronized long getLastNodesSearched() {
+		return lastStats == null ? 0 : lastStats.getNodesSearched();
+	}
+
+	/**
+	 * Returns the speed of the search for the last move published.
+	 *
+	 * @return the search speed in nodes per second, or 0 if no move has been
+	 *         published
+	 */
+	public synchronized long getLastNodesPerSecond() {
+		return lastStats == null ? 0 : lastStats.getNodesPerSecond();
+	}
+
+	/**
+	 * Returns the deepest search completed for the last move published.
+	 *
+	 * @return the number of moves looked ahead, or 0 if no move has been
+	 *         published
+	 */
+	public synchronized int getLastDepth() {
+		return lastStats == null ? 0 : lastStats.getDepth();
+	}
+
+	/**
+	 * Returns the number of table hits in the search for the last move published.
+	 *
+	 * @return the number of table hits, or 0 if no move has been published
+	 */
+	public synchronized long getLastTableHits() {
+		return lastStats == null ? 0 : lastStats.getTableHits();
+	}
+
+	/**
+	 * Returns the share of the positions searched for the last move published
+	 * that were answered from the transposition table.
+	 *
+	 * @return the table hit rate from 0 to 1, or 0 if no move has been published
+	 */
+	public synchronized double getLastTableHitRate() {
+		return lastStats == null ? 0 : lastStats.getTableHitRate();
+	}
+
+	/**
+	 * Returns the number of alpha-beta cutoffs in the search for the last move
+	 * published.
+	 *
+	 * @return the number of cutoffs, or 0 if no move has been published
+	 */
+	public synchronized long getLastCutoffs() {
+		return lastStats == null ? 0 : lastStats.getCutoffs();
+	}
+
+	/**
+	 * Returns the effective branching factor of the search for the last move
+	 * published.
+	 *
+	 * @return the effective branching factor, or 0 if no move has been published
+	 */
+	public synchronized double getLastBranchingFactor() {
+		return lastStats == null ? 0 : lastStats.getBranchingFactor();
+	}
+
+	/**
+	 * Returns the time taken to choose the last move published.
+	 *
+	 * @return the time in milliseconds, or 0 if no move has been published
+	 */
+	public synchronized long getLastTimeMillis() {
+		return lastStats == null ? 0 : lastStats.getTimeNanos() / 1000000;
+	}
+
+	/**
+	 * Converts the score of the last move published from quarter marbles into
+	 * marbles, which is easier to read in a JMX client.
+	 *
+	 * @return the score in marbles, or 0 if no move has been published
+	 */
+	public synchronized double getLastScore() {
+		return lastStats == null ? 0 : (double) lastStats.getScore() / Evaluation.SCORE_SCALE;
+	}
+
+	/**
+	 * Writes the principal variation of the last move published as a line of pit
+	 * indices, since JMX clients show strings more readily than arrays.
+	 *
+	 * @return the pit indices separated by spaces, or an empty string if no move
+	 *         has been published
+	 */
+	public synchronized String getLastPrincipalVariation() {
+		if (lastStats == null) {
+			return "";
+		}
+		StringBuilder line = new StringBuilder();
+		for (int pit : lastStats.getPrincipalVariation()) {
+			if (line.length() > 0) {
+				line.append(' ');
+			}
+			line.append(pit);
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Returns the number of positions searched over every move published.
+	 *
+	 * @return the total number of nodes searched
+	 */
+	public synchronized long getTotalNodesSearched() {
+		return totalNodesSearched;
+	}
+
+	/**
+	 * Returns the time taken over every move published.
+	 *
+	 * @return the total time in milliseconds
+	 */
+	public synchronized long getTotalTimeMillis() {
+		return totalTimeNanos / 1000000;
+	}
+
+	/**
+	 * Returns the search speed over every move published, weighting each move by
+	 * the time it took.
+	 *
+	 * @return the average speed in nodes per second, or 0 if no time was measured
+	 */
+	public synchronized long getAverageNodesPerSecond() {
+		return totalTimeNanos == 0 ? 0 : (long) (totalNodesSearched * 1e9 / totalTimeNanos);
+	}
+
+	/**
+	 * Returns the depth reached on an average move, counting moves looked up in a
+	 * table as depth 0.
+	 *
+	 * @return the average number of moves looked ahead, or 0 if no move has been
+	 *         published
+	 */
+	public synchronized double getAverageDepth() {
+		return moveCount == 0 ? 0 : (double) totalDepth / moveCount;
+	}
+
+	/**
+	 * Forgets the last move and the totals, for instance before measuring a new
+	 * budget.
+	 */
+	public synchronized void reset() {
+		lastStats = null;
+		moveCount = 0;
+		totalNodesSearched = 0;
+		totalTimeNanos = 0;
+		totalDepth = 0;
+	}
+}
@@ -0,0 +1,122 @@
+package mancala;
+
+/**
+ * The management interface of the {@link SearchMonitor}, through which JMX
+ * clients such as JConsole read how the computer opponent is searching.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public interface SearchMonitorMBean {
+	/**
+	 * Returns the number of moves the computer opponent has chosen.
+	 *
+	 * @return the number of moves published
+	 */
+	long getMoveCount();
+
+	/**
+	 * Returns the number of positions searched for the last move.
+	 *
+	 * @return the number of nodes searched, over all threads
+	 */
+	long getLastNodesSearched();
+
+	/**
+	 * Returns the speed of the search for the last move.
+	 *
+	 * @return the search speed in nodes per second
+	 */
+	long getLastNodesPerSecond();
+
+	/**
+	 * Returns the deepest search completed for the last move.
+	 *
+	 * @return the number of moves looked ahead
+	 */
+	int getLastDepth();
+
+	/**
+	 * Returns the number of positions answered from the transposition table for
+	 * the last move.
+	 *
+	 * @return the number of table hits
+	 */
+	long getLastTableHits();
+
+	/**
+	 * Returns the share of the positions searched for the last move that were
+	 * answered from the transposition table.
+	 *
+	 * @return the table hit rate, from 0 to 1
+	 */
+	double getLastTableHitRate();
+
+	/**
+	 * Returns the number of alpha-beta cutoffs in the search for the last move.
+	 *
+	 * @return the number of cutoffs
+	 */
+	long getLastCutoffs();
+
+	/**
+	 * Returns the effective branching factor of the search for the last move.
+	 *
+	 * @return the effective branching factor
+	 */
+	double getLastBranchingFactor();
+
+	/**
+	 * Returns the time taken to choose the last move.
+	 *
+	 * @return the time in milliseconds
+	 */
+	long getLastTimeMillis();
+
+	/**
+	 * Returns the score of the last move, in marbles, from the point of view of
+	 * the computer opponent.
+	 *
+	 * @return the score in marbles
+	 */
+	double getLastScore();
+
+	/**
+	 * Returns the line of play expected after the last move.
+	 *
+	 * @return the pit indices of the principal variation, separated by spaces
+	 */
+	String getLastPrincipalVariation();
+
+	/**
+	 * Returns the number of positions searched over every move published.
+	 *
+	 * @return the total number of nodes searched
+	 */
+	long getTotalNodesSearched();
+
+	/**
+	 * Returns the time taken over every move published.
+	 *
+	 * @return the total time in milliseconds
+	 */
+	long getTotalTimeMillis();
+
+	/**
+	 * Returns the search speed over every move published.
+	 *
+	 * @return the average speed in nodes per second
+	 */
+	long getAverageNodesPerSecond();
+
+	/**
+	 * Returns the average depth reached over every move published.
+	 *
+	 * @return the average number of moves looked ahead
+	 */
+	double getAverageDepth();
+
+	/**
+	 * Forgets every move published so far.
+	 */
+	void reset();
+}
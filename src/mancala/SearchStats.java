@@ -0,0 +1,158 @@
+package mancala;
+
+import java.util.Arrays;
+
+/**
+ * Describes the work done by an engine to choose one move: how many positions
+ * it searched and how fast, how deep it got, how often the transposition table
+ * and alpha-beta cut the search short, and the line of play it expects. Engines
+ * count these as they search, each thread in its own fields, and build a
+ * record once the move is chosen, so collecting them costs next to nothing.
+ *
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class SearchStats {
+	private final long nodesSearched;
+	private final long tableHits;
+	private final long cutoffs;
+	private final int depth;
+	private final long timeNanos;
+	private final int score;
+	private final int[] principalVariation;
+
+	/**
+	 * Creates the record of a search.
+	 *
+	 * @param nodesSearched      the number of positions searched, over all threads
+	 * @param tableHits          the number of positions answered from the
+	 *                           transposition table
+	 * @param cutoffs            the number of positions whose remaining moves were
+	 *                           skipped by an alpha-beta cutoff
+	 * @param depth              the deepest search completed
+	 * @param timeNanos          the time taken, in nanoseconds
+	 * @param score              the score of the chosen move for the player who
+	 *                           was to move, in quarter marbles
+	 * @param principalVariation the moves expected to be played, starting with the
+	 *                           chosen move
+	 */
+	public SearchStats(long nodesSearched, long tableHits, long cutoffs, int depth, long timeNanos, int score,
+			int[] principalVariation) {
+		this.nodesSearched = nodesSearched;
+		this.tableHits = tableHits;
+		this.cutoffs = cutoffs;
+		this.depth = depth;
+		this.timeNanos = timeNanos;
+		this.score = score;
+		this.principalVariation = principalVariation.clone();
+	}
+
+	/**
+	 * Returns the number of positions searched.
+	 *
+	 * @return the number of nodes searched, over all threads
+	 */
+	public long getNodesSearched() {
+		return nodesSearched;
+	}
+
+	/**
+	 * Returns the number of positions searched per second.
+	 *
+	 * @return the search speed in nodes per second, or 0 if no time was measured
+	 */
+	public long getNodesPerSecond() {
+		return timeNanos == 0 ? 0 : (long) (nodesSearched * 1e9 / timeNanos);
+	}
+
+	/**
+	 * Returns the number of positions answered from the transposition table.
+	 *
+	 * @return the number of table hits
+	 */
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	/**
+	 * Returns the share of the positions searched that were answered from the
+	 * transposition table.
+	 *
+	 * @return the table hit rate, from 0 to 1
+	 */
+	public double getTableHitRate() {
+		return nodesSearched == 0 ? 0 : (double) tableHits / nodesSearched;
+	}
+
+	/**
+	 * Returns the number of positions whose remaining moves were skipped by an
+	 * alpha-beta cutoff.
+	 *
+	 * @return the number of cutoffs
+	 */
+	public long getCutoffs() {
+		return cutoffs;
+	}
+
+	/**
+	 * Returns the deepest search that was completed.
+	 *
+	 * @return the number of moves looked ahead, or 0 if the move was looked up
+	 *         rather than searched
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the effective branching factor of the search: the number of moves
+	 * per position that would give the same number of positions in a tree of the
+	 * depth reached. The lower it is, the better alpha-beta and the table pruned
+	 * the tree.
+	 *
+	 * @return the effective branching factor, or 0 if the move was not searched
+	 */
+	public double getBranchingFactor() {
+		return depth == 0 ? 0 : Math.pow(nodesSearched, 1.0 / depth);
+	}
+
+	/**
+	 * Returns the time taken to choose the move.
+	 *
+	 * @return the time in nanoseconds
+	 */
+	public long getTimeNanos() {
+		return timeNanos;
+	}
+
+	/**
+	 * Returns the score of the chosen move, from the point of view of the player
+	 * who was to move.
+	 *
+	 * @return the score in quarter marbles
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the moves the engine expects to be played, starting with the move it
+	 * chose. Extra turns mean the same player can make several moves in a row.
+	 *
+	 * @return the pit indices of the principal variation
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	/**
+	 * To string method for the search statistics.
+	 *
+	 * @return String describing the search
+	 */
+	public String toString() {
+		return "depth " + depth + ", " + nodesSearched + " nodes in " + timeNanos / 1000000 + " ms ("
+				+ getNodesPerSecond() + " nodes/s), " + tableHits + " table hits, " + cutoffs
+				+ " cutoffs, branching factor " + String.format("%.2f", getBranchingFactor()) + ", score "
+				+ Evaluation.toMarbles(score) + ", pv " + Arrays.toString(principalVariation);
+	}
+}
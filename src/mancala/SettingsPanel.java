@@ -15,14 +15,16 @@ import java.io.IOException;
 import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 /**
  * This class creates the settings panel for the mancala game. It has two
  * different settings options, single player or two player. By clicking one of
- * these buttons, the game will launch. This panel also has other buttons that
- * allow the user to switch between menus.
+ * these buttons, the game will launch. The difficulty of the computer opponent
+ * in single player games is chosen from a list below the buttons. This panel
+ * also has other buttons that allow the user to switch between menus.
  *
  */
 @SuppressWarnings("serial")
@@ -31,6 +33,7 @@ public class SettingsPanel extends JPanel {
 
 	private JButton singlePlayerButton = new JButton();
 	private JButton twoPlayerButton = new JButton();
+	private JComboBox<Difficulty> difficultyBox = new JComboBox<>(Difficulty.values());
 	
 	private Image resizedBackgroundImage;
 	private Image resizedTitleImage;
@@ -132,10 +135,22 @@ public class SettingsPanel extends JPanel {
 		});
 		
 
+		// Create the difficulty selector for single player games
+		JLabel difficultyDesc = new JLabel("DIFFICULTY:");
+		difficultyDesc.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 16));
+		difficultyDesc.setBounds(278, 445, 120, 30);
+		difficultyBox.setSelectedItem(Difficulty.DEFAULT);
+		difficultyBox.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+		difficultyBox.setBounds(402, 447, 120, 26);
+		// Leaves the keyboard focus with the window, which listens for key presses
+		difficultyBox.setFocusable(false);
+
 		this.add(homeButton);
 		this.add(singlePlayerButton);
 		this.add(twoPlayerButton);
 		this.add(buttonDesc);
+		this.add(difficultyDesc);
+		this.add(difficultyBox);
 		
 		try {
 			// Create the background image
@@ -227,4 +242,13 @@ public class SettingsPanel extends JPanel {
 	public JButton getTwoPlayerButton() {
 		return twoPlayerButton;
 	}
+	
+	/**
+	 * Returns the difficulty chosen for the computer opponent.
+	 * 
+	 * @return the selected difficulty
+	 */
+	public Difficulty getDifficulty() {
+		return (Difficulty) difficultyBox.getSelectedItem();
+	}
 }
\ No newline at end of file
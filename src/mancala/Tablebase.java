@@ -0,0 +1,266 @@
+package mancala;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A table of the exact result of every position with only a few seeds left in
+ * the pits, made by {@link TablebaseGenerator}.
+ * 
+ * <p>
+ * Seeds already in a store never leave it, so how a position ends only depends
+ * on the seeds still in the pits and on whose turn it is. For every such
+ * position the table holds one signed byte: the number of seeds the player to
+ * move will gain over the opponent from here on with perfect play by both
+ * sides, counting the seeds swept into the stores at the end. Adding the
+ * current difference between the stores gives the final margin, whose sign
+ * says whether the position is a win, a draw or a loss.
+ * 
+ * <p>
+ * Positions are indexed by a combinatorial rank of the seed counts of the 12
+ * pits: all positions with fewer seeds come first, and positions with the same
+ * number of seeds are ranked in lexicographic order of their pit counts. The
+ * index of a position is twice its rank, plus one if Player 2 is to move.
+ * 
+ * <p>
+ * A tablebase file starts with the magic number, the format version and the
+ * largest number of seeds covered, followed by one byte for every index.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class Tablebase {
+	public static final int MAGIC = 0x4D4B5442;
+	public static final int VERSION = 1;
+	public static final int HEADER_BYTES = 3 * Integer.BYTES;
+	// The largest number of seeds a position can be indexed with
+	public static final int MAX_SEEDS = 48;
+
+	private static final int PIT_COUNT = 2 * Board.PITS_PER_SIDE;
+	private static final long[][] BINOMIAL = new long[MAX_SEEDS + PIT_COUNT + 1][PIT_COUNT + 1];
+
+	static {
+		for (int n = 0; n < BINOMIAL.length; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= Math.min(n, PIT_COUNT); k++) {
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+			}
+		}
+	}
+
+	private final int maxSeeds;
+	// The margins by index, in chunks of MappedFile.CHUNK_SIZE bytes
+	private final ByteBuffer[] margins;
+
+	/**
+	 * Creates a tablebase from the margins made by the generator.
+	 * 
+	 * @param maxSeeds the largest number of seeds in the pits that is covered
+	 * @param margins  the margin of every position, by index
+	 */
+	Tablebase(int maxSeeds, byte[] margins) {
+		this(maxSeeds, new ByteBuffer[] { ByteBuffer.wrap(margins) });
+		if (margins.length != getIndexCount(maxSeeds)) {
+			throw new IllegalArgumentException("A tablebase of " + maxSeeds + " seeds needs "
+					+ getIndexCount(maxSeeds) + " entries, not " + margins.length);
+		}
+	}
+
+	private Tablebase(int maxSeeds, ByteBuffer[] margins) {
+		this.maxSeeds = maxSeeds;
+		this.margins = margins;
+	}
+
+	/**
+	 * Opens a tablebase file by mapping it into memory, so that positions are read
+	 * straight from the file as they are looked up. This is how large tablebases
+	 * should be opened: it takes milliseconds whatever the size of the file, uses
+	 * no heap for the table, and the pages read are shared with every other JVM
+	 * using the same file.
+	 * 
+	 * @param file the tablebase file
+	 * @return the tablebase
+	 * @throws IOException if the file cannot be read or is not a tablebase
+	 */
+	public static Tablebase open(File file) throws IOException {
+		ByteBuffer header = MappedFile.readHeader(file, HEADER_BYTES);
+		int maxSeeds = readHeader(header.getInt(), header.getInt(), header.getInt());
+		return new Tablebase(maxSeeds, MappedFile.map(file, HEADER_BYTES, getIndexCount(maxSeeds)));
+	}
+
+	/**
+	 * Reads a tablebase written by {@link #write(OutputStream)}.
+	 * 
+	 * @param in the stream to read from
+	 * @return the tablebase
+	 * @throws IOException if the stream cannot be read or is not a tablebase
+	 */
+	public static Tablebase read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		int maxSeeds = readHeader(data.readInt(), data.readInt(), data.readInt());
+		long indexCount = getIndexCount(maxSeeds);
+		if (indexCount > Integer.MAX_VALUE) {
+			throw new IOException("A tablebase of " + maxSeeds + " seeds is too large to read; open it instead");
+		}
+		byte[] margins = new byte[(int) indexCount];
+		data.readFully(margins);
+		return new Tablebase(maxSeeds, margins);
+	}
+
+	/**
+	 * Checks the header of a tablebase file.
+	 * 
+	 * @return the largest number of seeds covered
+	 */
+	private static int readHeader(int magic, int version, int maxSeeds) throws IOException {
+		if (magic != MAGIC || version != VERSION) {
+			throw new IOException("Not a Mancala tablebase");
+		}
+		if (maxSeeds < 0 || maxSeeds > MAX_SEEDS) {
+			throw new IOException("Unsupported tablebase size: " + maxSeeds + " seeds");
+		}
+		return maxSeeds;
+	}
+
+	/**
+	 * Writes the tablebase in its file format.
+	 * 
+	 * @param out the stream to write to
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(maxSeeds);
+		byte[] block = new byte[1 << 16];
+		for (ByteBuffer chunk : margins) {
+			ByteBuffer bytes = chunk.duplicate();
+			bytes.clear();
+			while (bytes.hasRemaining()) {
+				int length = Math.min(block.length, bytes.remaining());
+				bytes.get(block, 0, length);
+				data.write(block, 0, length);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Checks whether a position has few enough seeds in its pits to be in the
+	 * table.
+	 * 
+	 * @param board the position to be checked
+	 * @return true if the position is covered, false otherwise
+	 */
+	public boolean contains(Board board) {
+		return board.getSideCount(0) + board.getSideCount(1) <= maxSeeds;
+	}
+
+	/**
+	 * Returns the number of seeds the player to move will gain over the opponent
+	 * from a position with perfect play.
+	 * 
+	 * @param board a position covered by the table
+	 * @return the margin still to be gained by the player to move
+	 */
+	public int getMargin(Board board) {
+		return MappedFile.getByte(margins, getIndex(board));
+	}
+
+	/**
+	 * Returns the number of seeds the player to move will finish the game ahead
+	 * by with perfect play.
+	 * 
+	 * @param board a position covered by the table
+	 * @return the final difference between the stores
+	 */
+	public int getFinalMargin(Board board) {
+		int player = board.getCurrentPlayer();
+		return board.getStoreCount(player) - board.getStoreCount(1 - player) + getMargin(board);
+	}
+
+	/**
+	 * Returns the best move in a position, the one that keeps the largest final
+	 * margin. Each move is looked up once, with no search.
+	 * 
+	 * @param board a position covered by the table, with at least one legal move
+	 * @return the index of the best pit to be moved
+	 */
+	public int getBestMove(Board board) {
+		Board child = new Board();
+		int player = board.getCurrentPlayer();
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int bestMove = -1;
+		int bestMargin = Integer.MIN_VALUE;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (board.getSeeds(pit) != 0) {
+				child.copyFrom(board);
+				child.makeMove(pit);
+				int margin = getFinalMargin(child);
+				if (child.getCurrentPlayer() != player) {
+					margin = -margin;
+				}
+				if (margin > bestMargin) {
+					bestMargin = margin;
+					bestMove = pit;
+				}
+			}
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Returns the largest number of seeds in the pits that is covered.
+	 * 
+	 * @return the size of the tablebase in seeds
+	 */
+	public int getMaxSeeds() {
+		return maxSeeds;
+	}
+
+	/**
+	 * Returns the index of a position in a tablebase.
+	 * 
+	 * @param board a position with no more than {@link #MAX_SEEDS} seeds in its
+	 *              pits
+	 * @return the index of the position
+	 */
+	public static long getIndex(Board board) {
+		int remaining = board.getSideCount(0) + board.getSideCount(1);
+		long rank = remaining == 0 ? 0 : BINOMIAL[remaining - 1 + PIT_COUNT][PIT_COUNT];
+		for (int i = 0; i < PIT_COUNT - 1; i++) {
+			int count = board.getSeeds(getPit(i));
+			int parts = PIT_COUNT - 1 - i;
+			// The positions whose count in this pit is smaller come first
+			rank += BINOMIAL[remaining + parts][parts] - BINOMIAL[remaining - count + parts][parts];
+			remaining -= count;
+		}
+		return rank * 2 + board.getCurrentPlayer();
+	}
+
+	/**
+	 * Returns the number of indices in a tablebase covering the given number of
+	 * seeds.
+	 * 
+	 * @param maxSeeds the largest number of seeds in the pits
+	 * @return the number of positions in the tablebase
+	 */
+	public static long getIndexCount(int maxSeeds) {
+		return BINOMIAL[maxSeeds + PIT_COUNT][PIT_COUNT] * 2;
+	}
+
+	/**
+	 * Returns the board slot of the i-th pit, skipping Player 1's store.
+	 * 
+	 * @param i the number of the pit, from 0 to 11
+	 * @return the index of the pit's slot on the board
+	 */
+	static int getPit(int i) {
+		return i < Board.PITS_PER_SIDE ? i : i + 1;
+	}
+}
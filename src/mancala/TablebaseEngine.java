@@ -0,0 +1,64 @@
+package mancala;
+
+/**
+ * A computer opponent that plays perfectly once few enough seeds are left in
+ * the pits to be covered by a {@link Tablebase}, and leaves every other position
+ * to another engine.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class TablebaseEngine extends FallbackEngine {
+	private final Tablebase tablebase;
+	private boolean lastMoveFromTablebase;
+
+	/**
+	 * Creates an opponent that looks positions up in a tablebase before searching
+	 * them.
+	 * 
+	 * @param tablebase the tablebase used for the endgame
+	 * @param fallback  the engine used for positions outside the tablebase
+	 */
+	public TablebaseEngine(Tablebase tablebase, SearchEngine fallback) {
+		super(fallback);
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Chooses a move for the player whose turn it is on the given board, from the
+	 * tablebase if it covers the position.
+	 * 
+	 * @param position the board to choose a move on, which is left unchanged
+	 * @return the index of the pit to be moved
+	 */
+	public int chooseMove(Board position) {
+		stopPondering();
+		long startTime = System.nanoTime();
+		lastMoveFromTablebase = tablebase.contains(position) && !position.isGameOver();
+		if (lastMoveFromTablebase) {
+			int move = tablebase.getBestMove(position);
+			recordMove(1, new SearchStats(1, 1, 0, 0, System.nanoTime() - startTime,
+					tablebase.getFinalMargin(position) * Evaluation.SCORE_SCALE, new int[] { move }));
+			return move;
+		}
+		return chooseFallbackMove(position);
+	}
+
+	/**
+	 * Returns whether the last move was found in the tablebase.
+	 * 
+	 * @return true if the last move came from the tablebase, false if it was
+	 *         searched
+	 */
+	public boolean isLastMoveFromTablebase() {
+		return lastMoveFromTablebase;
+	}
+
+	/**
+	 * Returns the tablebase used for the endgame.
+	 * 
+	 * @return the tablebase
+	 */
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+}
@@ -0,0 +1,171 @@
+package mancala;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Builds a {@link Tablebase} by solving every position with up to a given
+ * number of seeds in the pits, working backwards from the end of the game.
+ * 
+ * <p>
+ * No move ever adds seeds to the pits, and a move that leaves the number of
+ * seeds in the pits unchanged only carries seeds further along the mover's own
+ * side towards the store. So if every position is given a progress value, the
+ * sum over both sides of each pit's seed count times its distance from the
+ * start of that side, a move either lowers the number of seeds in the pits or
+ * keeps it and raises the progress. Positions are therefore solved in order of
+ * the number of seeds, from the empty board up, and within each number of
+ * seeds from the highest progress down. Every position a move can reach has
+ * been solved before the position itself, so each one is worked out from its
+ * moves with a few lookups. Positions with the same number of seeds and the
+ * same progress cannot reach each other and are solved in parallel.
+ * 
+ * <p>
+ * Running this program writes a tablebase file. The largest number of seeds
+ * and the file name can be given as the first and second program arguments.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class TablebaseGenerator {
+	public static final int DEFAULT_MAX_SEEDS = 12;
+	public static final String DEFAULT_FILE_NAME = "tablebase/mancala.tb";
+
+	// The largest number of seeds whose table fits in a Java array
+	public static final int MAX_SEEDS = 20;
+
+	private static final int PIT_COUNT = 2 * Board.PITS_PER_SIDE;
+	private static final int MAX_PROGRESS_PER_SEED = Board.PITS_PER_SIDE - 1;
+
+	/**
+	 * Solves every position with up to the given number of seeds in the pits.
+	 * 
+	 * @param maxSeeds the largest number of seeds in the pits, up to
+	 *                 {@link #MAX_SEEDS}
+	 * @return the tablebase
+	 */
+	public static Tablebase generate(int maxSeeds) {
+		if (maxSeeds < 0 || maxSeeds > MAX_SEEDS) {
+			throw new IllegalArgumentException("A tablebase can cover 0 to " + MAX_SEEDS + " seeds: " + maxSeeds);
+		}
+		byte[] margins = new byte[(int) Tablebase.getIndexCount(maxSeeds)];
+		ThreadLocal<Board[]> boards = ThreadLocal.withInitial(() -> new Board[] { new Board(), new Board() });
+
+		for (int seedCount = 0; seedCount <= maxSeeds; seedCount++) {
+			// Group the positions with this many seeds by their progress
+			int[][] layers = groupByProgress(seedCount);
+			for (int progress = layers.length - 1; progress >= 0; progress--) {
+				int[] layer = layers[progress];
+				IntStream.range(0, layer.length / PIT_COUNT).parallel().forEach(position -> {
+					Board[] scratch = boards.get();
+					for (int player = 0; player < 2; player++) {
+						Board board = scratch[0];
+						for (int i = 0; i < PIT_COUNT; i++) {
+							board.setSeeds(Tablebase.getPit(i), layer[position * PIT_COUNT + i]);
+						}
+						board.setCurrentPlayer(player);
+						margins[(int) Tablebase.getIndex(board)] = (byte) solve(board, scratch[1], margins);
+					}
+				});
+			}
+		}
+		return new Tablebase(maxSeeds, margins);
+	}
+
+	/**
+	 * Works out the margin of a position from the margins of the positions its
+	 * moves lead to. The stores of the board must be empty.
+	 */
+	private static int solve(Board board, Board child, byte[] margins) {
+		int player = board.getCurrentPlayer();
+		if (board.isGameOver()) {
+			return board.getSideCount(player) - board.getSideCount(1 - player);
+		}
+		int firstPit = player * (Board.PITS_PER_SIDE + 1);
+		int best = Integer.MIN_VALUE;
+		for (int pit = firstPit; pit < firstPit + Board.PITS_PER_SIDE; pit++) {
+			if (board.getSeeds(pit) == 0) {
+				continue;
+			}
+			child.copyFrom(board);
+			child.makeMove(pit);
+			int gained = child.getStoreCount(player) - child.getStoreCount(1 - player);
+			child.setSeeds(Board.PLAYER_ONE_STORE, 0);
+			child.setSeeds(Board.PLAYER_TWO_STORE, 0);
+			int childMargin = margins[(int) Tablebase.getIndex(child)];
+			int margin = gained + (child.getCurrentPlayer() == player ? childMargin : -childMargin);
+			best = Math.max(best, margin);
+		}
+		return best;
+	}
+
+	/**
+	 * Lists the pit counts of every position with the given number of seeds in the
+	 * pits, grouped by progress.
+	 * 
+	 * @return for each progress, the pit counts of its positions one after
+	 *         another
+	 */
+	private static int[][] groupByProgress(int seedCount) {
+		int[] sizes = new int[seedCount * MAX_PROGRESS_PER_SEED + 1];
+		int[] counts = new int[PIT_COUNT];
+		forEachPosition(counts, 0, seedCount, progress -> sizes[progress] += PIT_COUNT);
+		int[][] layers = new int[sizes.length][];
+		for (int progress = 0; progress < sizes.length; progress++) {
+			layers[progress] = new int[sizes[progress]];
+		}
+		int[] filled = new int[sizes.length];
+		forEachPosition(counts, 0, seedCount, progress -> {
+			System.arraycopy(counts, 0, layers[progress], filled[progress], PIT_COUNT);
+			filled[progress] += PIT_COUNT;
+		});
+		return layers;
+	}
+
+	/**
+	 * Calls the action with the progress of every way of putting the remaining
+	 * seeds into the pits from the given pit on, with the pit counts filled in.
+	 */
+	private static void forEachPosition(int[] counts, int pit, int remaining, IntConsumer action) {
+		if (pit == PIT_COUNT - 1) {
+			counts[pit] = remaining;
+			int progress = 0;
+			for (int i = 0; i < PIT_COUNT; i++) {
+				progress += counts[i] * (i % Board.PITS_PER_SIDE);
+			}
+			action.accept(progress);
+			return;
+		}
+		for (int count = 0; count <= remaining; count++) {
+			counts[pit] = count;
+			forEachPosition(counts, pit + 1, remaining - count, action);
+		}
+	}
+
+	/**
+	 * Executes when this program is ran. Generates a tablebase and writes it to a
+	 * file.
+	 * 
+	 * @param args the largest number of seeds and the file name, both optional
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int maxSeeds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_SEEDS;
+		String fileName = args.length > 1 ? args[1] : DEFAULT_FILE_NAME;
+		long startTime = System.nanoTime();
+		Tablebase tablebase = generate(maxSeeds);
+		File file = new File(fileName);
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+			tablebase.write(out);
+		}
+		System.out.println("Solved " + Tablebase.getIndexCount(maxSeeds) + " positions with up to " + maxSeeds
+				+ " seeds in " + (System.nanoTime() - startTime) / 1000000 + " ms, written to " + fileName);
+	}
+}
@@ -0,0 +1,185 @@
+package mancala;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results, indexed by the Zobrist hash of a
+ * position, so that a position reached again through a different order of
+ * moves does not have to be searched again.
+ * 
+ * <p>
+ * The table is split into a power-of-two number of buckets of two entries. The
+ * first entry of a bucket only gives way to a search at least as deep as the
+ * one it holds, so the results that were most expensive to find are kept. The
+ * second entry is always replaced, so recent positions can be stored even when
+ * the first entry is full. The depth searched, the kind of bound, the score and
+ * the best move of an entry are packed into one long, which {@link #probe(long)}
+ * returns and the static getters of this class decode.
+ * 
+ * <p>
+ * The table can be shared by several searching threads without any locking.
+ * Each entry is two plain longs: the packed data, and the hash key exclusive-or
+ * the data. A reader only accepts an entry whose two halves give back the key
+ * it is looking for, so an entry half written by another thread is seen as a
+ * miss rather than as a wrong result.
+ * 
+ * <p>
+ * The memory used is capped by a limit in megabytes given when the table is
+ * created, so many games can share one JVM.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public class TranspositionTable {
+	public static final int EXACT = 1;
+	public static final int LOWER_BOUND = 2;
+	public static final int UPPER_BOUND = 3;
+	public static final int NO_MOVE = 15;
+	public static final long MISS = 0;
+
+	// Bytes used by one entry: the checked key and the data
+	private static final int ENTRY_BYTES = 2 * Long.BYTES;
+	private static final int BUCKET_SIZE = 2;
+
+	/*
+	 * The data of an entry holds the bound type in bits 0-1, which are never both
+	 * zero, the best move in bits 2-5, the depth in bits 6-13 and the score in the
+	 * upper 32 bits.
+	 */
+	private static final int MOVE_SHIFT = 2;
+	private static final int DEPTH_SHIFT = 6;
+	private static final int SCORE_SHIFT = 32;
+
+	private final long[] checkedKeys;
+	private final long[] data;
+	private final int bucketMask;
+
+	/**
+	 * Creates a table using no more than the given amount of memory.
+	 * 
+	 * @param megabytes the most memory the table may use, in megabytes
+	 * @throws IllegalArgumentException if the limit is less than one megabyte
+	 */
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("A transposition table needs at least 1 MB: " + megabytes);
+		}
+		long maxBuckets = (long) megabytes * 1024 * 1024 / (ENTRY_BYTES * BUCKET_SIZE);
+		int bucketCount = Integer.highestOneBit((int) Math.min(maxBuckets, 1 << 29));
+		checkedKeys = new long[bucketCount * BUCKET_SIZE];
+		data = new long[bucketCount * BUCKET_SIZE];
+		bucketMask = bucketCount - 1;
+	}
+
+	/**
+	 * Looks up a position in the table.
+	 * 
+	 * @param key the Zobrist hash key of the position
+	 * @return the packed data of the position's entry, or {@link #MISS} if it is
+	 *         not in the table
+	 */
+	public long probe(long key) {
+		int entry = getBucket(key);
+		for (int i = 0; i < BUCKET_SIZE; i++, entry++) {
+			long entryData = data[entry];
+			if ((checkedKeys[entry] ^ entryData) == key && entryData != MISS) {
+				return entryData;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Stores the result of a search. A result for a position already in the bucket
+	 * overwrites it; otherwise the first entry is replaced if the new search is at
+	 * least as deep, and the second entry is replaced if not.
+	 * 
+	 * @param key   the Zobrist hash key of the position
+	 * @param depth the number of moves searched below the position
+	 * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 * @param score the score found by the search
+	 * @param move  the best move found, or {@link #NO_MOVE}
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		int deepEntry = getBucket(key);
+		int recentEntry = deepEntry + 1;
+		long deepData = data[deepEntry];
+		boolean deepIsKey = (checkedKeys[deepEntry] ^ deepData) == key;
+		boolean recentIsKey = (checkedKeys[recentEntry] ^ data[recentEntry]) == key;
+		int entry;
+		if (recentIsKey && !deepIsKey && depth < getDepth(deepData)) {
+			entry = recentEntry;
+		} else if (deepData == MISS || deepIsKey || depth >= getDepth(deepData)) {
+			entry = deepEntry;
+		} else {
+			entry = recentEntry;
+		}
+		long entryData = (long) score << SCORE_SHIFT | depth << DEPTH_SHIFT | move << MOVE_SHIFT | bound;
+		data[entry] = entryData;
+		checkedKeys[entry] = key ^ entryData;
+	}
+
+	/**
+	 * Returns the depth searched for an entry.
+	 * 
+	 * @param entryData the packed data returned by {@link #probe(long)}
+	 * @return the number of moves searched below the position
+	 */
+	public static int getDepth(long entryData) {
+		return (int) (entryData >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * Returns the kind of bound stored in an entry.
+	 * 
+	 * @param entryData the packed data returned by {@link #probe(long)}
+	 * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+	 */
+	public static int getBound(long entryData) {
+		return (int) entryData & 3;
+	}
+
+	/**
+	 * Returns the score stored in an entry.
+	 * 
+	 * @param entryData the packed data returned by {@link #probe(long)}
+	 * @return the score found by the search
+	 */
+	public static int getScore(long entryData) {
+		return (int) (entryData >> SCORE_SHIFT);
+	}
+
+	/**
+	 * Returns the best move stored in an entry.
+	 * 
+	 * @param entryData the packed data returned by {@link #probe(long)}
+	 * @return the index of the best pit, or {@link #NO_MOVE}
+	 */
+	public static int getMove(long entryData) {
+		return (int) (entryData >>> MOVE_SHIFT) & 0xF;
+	}
+
+	/**
+	 * Empties the table. This must not be called while another thread is using
+	 * the table.
+	 */
+	public void clear() {
+		Arrays.fill(data, MISS);
+		Arrays.fill(checkedKeys, 0);
+	}
+
+	/**
+	 * Returns the number of entries the table can hold.
+	 * 
+	 * @return the capacity of the table
+	 */
+	public int getCapacity() {
+		return data.length;
+	}
+
+	/**
+	 * Returns the first entry of the bucket a key belongs to.
+	 */
+	private int getBucket(long key) {
+		return ((int) (key ^ key >>> 32) & bucketMask) * BUCKET_SIZE;
+	}
+}
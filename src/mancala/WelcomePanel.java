@@ -212,7 +212,7 @@ public class WelcomePanel extends JPanel {
 		g.drawImage(resizedBackgroundImage, 0, 0, null);
 
 		for (Marble marble : marbleList) {
-			g.drawImage(marble.getMarbleImage(), marble.getXcord(), marble.getYcord(), null);
+			g.drawImage(MarbleSprites.getImage(marble.getColor()), marble.getXcord(), marble.getYcord(), null);
 		}
 
 		g.drawImage(resizedTitleImage, 140, 130, null);
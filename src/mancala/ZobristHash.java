@@ -0,0 +1,62 @@
+package mancala;
+
+import java.util.Random;
+
+/**
+ * Computes Zobrist hash keys for Mancala positions. Every slot of the board has
+ * a random 64-bit key for each number of seeds it can hold, and the key of a
+ * position is the exclusive or of the keys of its slots, together with one more
+ * key when Player 2 is to move. Equal positions always have equal keys, and
+ * different positions have different keys with very high probability.
+ * 
+ * <p>
+ * The random keys are made from a fixed seed, so a position has the same key in
+ * every run of the program.
+ * 
+ * @author Ryan Johnson, Hank Rugg
+ */
+public final class ZobristHash {
+	private static final int KEYS_PER_SLOT = 256;
+	private static final long[][] SEED_KEYS = new long[Board.SLOT_COUNT][KEYS_PER_SLOT];
+	private static final long PLAYER_TWO_KEY;
+
+	static {
+		Random rand = new Random(0x6D616E63616C61L);
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			for (int seedCount = 0; seedCount < KEYS_PER_SLOT; seedCount++) {
+				SEED_KEYS[slot][seedCount] = rand.nextLong();
+			}
+		}
+		PLAYER_TWO_KEY = rand.nextLong();
+	}
+
+	private ZobristHash() {
+	}
+
+	/**
+	 * Computes the hash key of the seed counts and current player of a board.
+	 * 
+	 * @param board the board to be hashed
+	 * @return the hash key of the position
+	 */
+	public static long hash(Board board) {
+		long key = board.getCurrentPlayer() == 0 ? 0 : PLAYER_TWO_KEY;
+		for (int slot = 0; slot < Board.SLOT_COUNT; slot++) {
+			key ^= getSeedKey(slot, board.getSeeds(slot));
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the key of one slot holding the given number of seeds. Counts too
+	 * large for the table reuse its keys, rotated by how many times they wrap
+	 * around it.
+	 * 
+	 * @param slot      index of the pit or store
+	 * @param seedCount the number of seeds in the slot
+	 * @return the key of the slot
+	 */
+	public static long getSeedKey(int slot, int seedCount) {
+		return Long.rotateLeft(SEED_KEYS[slot][seedCount & (KEYS_PER_SLOT - 1)], seedCount / KEYS_PER_SLOT);
+	}
+}